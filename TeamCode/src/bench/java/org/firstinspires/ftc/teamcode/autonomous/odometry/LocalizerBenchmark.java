@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalizerBenchmark {
+    TwoWheelTrackingLocalizer localizer = new TwoWheelTrackingLocalizer(0, 1);
+    double[] deltas = {0.01, -0.02, 0.001};
+    long nanos;
+
+    // One loop's worth of odometry, including the pose history and velocity estimate
+    @Benchmark
+    public double updateFromRelative() {
+        nanos += 10000000;
+        localizer.updateFromRelative(deltas, nanos);
+        return localizer.x();
+    }
+}
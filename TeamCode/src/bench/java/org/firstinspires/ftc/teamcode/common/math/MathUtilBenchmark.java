@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.common.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilBenchmark {
+    Pose fieldPose = new Pose(10, 20, 0.5);
+    Pose delta = new Pose(0.2, -0.01, 0.003);
+    Pose out = new Pose(0, 0, 0);
+
+    // A lookahead circle around a point near a path segment, like trackToLine uses
+    Point start = new Point(-40, 55);
+    Point end = new Point(30, 36);
+    Point center = new Point(-3, 47);
+    Point intersection = new Point(0, 0);
+
+    @Benchmark
+    public Pose relativeOdometryUpdate() {
+        return MathUtil.relativeOdometryUpdate(fieldPose, delta);
+    }
+
+    @Benchmark
+    public Pose relativeOdometryUpdateInPlace() {
+        return MathUtil.relativeOdometryUpdate(fieldPose, delta, out);
+    }
+
+    @Benchmark
+    public Point lineSegmentCircleIntersection() {
+        return MathUtil.lineSegmentCircleIntersection(start, end, center, 10);
+    }
+
+    @Benchmark
+    public Point lineSegmentCircleIntersectionInPlace() {
+        MathUtil.lineSegmentCircleIntersection(start, end, center, 10, intersection);
+        return intersection;
+    }
+}
@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.teamcode.autonomous.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.autonomous.controllers.MecanumPurePursuitController;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.HeadingControlledWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.SSAutoMovingFoundation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MecanumBenchmark {
+    Pose robotPose = new Pose(10, 20, 0.3);
+    Pose robotVelocity = new Pose(12, 3, 0.1);
+    Waypoint lookahead = new HeadingControlledWaypoint(40, 30, 8, Math.PI / 2);
+    StopWaypoint stop = new StopWaypoint(16, 24, 8, Math.PI / 2, 1);
+    MecanumPowers powers = new MecanumPowers(0, 0, 0, 0);
+    double theta;
+
+    VirtualSkystoneHardware robot;
+    PurePursuitPath path;
+
+    // The robot sits still on the first segment of the auto, so every update tracks the same line
+    @Setup
+    public void setUp() {
+        SSAutoMovingFoundation auto = new SSAutoMovingFoundation();
+        robot = new VirtualSkystoneHardware(auto.getBlueStartPosition());
+        path = new PurePursuitPath(robot, auto.getPurePursuitWaypoints());
+    }
+
+    @Benchmark
+    public MecanumPowers goToPosition() {
+        return MecanumPurePursuitController.goToPosition(robotPose, robotVelocity, lookahead, null, powers);
+    }
+
+    // Fast enough and close enough to a stop that we aim short to allow for slip
+    @Benchmark
+    public MecanumPowers goToPositionSlipping() {
+        return MecanumPurePursuitController.goToPosition(robotPose, robotVelocity, stop, stop, powers);
+    }
+
+    @Benchmark
+    public int pathUpdate() {
+        path.update();
+        return path.currPoint;
+    }
+
+    @Benchmark
+    public MecanumPowers powersFromAngle() {
+        theta += 0.01;
+        return MecanumUtil.powersFromAngle(theta, 0.8, 0.2);
+    }
+}
@@ -0,0 +1,60 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntakeCurrentQueueBenchmark {
+    IntakeCurrentQueue queue;
+    IntakeCurrent[] samples;
+    long millis;
+    int next;
+
+    // A full queue of noisy currents, with a new sample every 10 ms like the robot loop
+    @Setup
+    public void setUp() {
+        Random random = new Random(8802);
+        samples = new IntakeCurrent[1024];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new IntakeCurrent(random.nextDouble() * 10000, random.nextDouble() * 10000);
+        }
+        queue = new IntakeCurrentQueue();
+        for (int i = 0; i < IntakeCurrentQueue.MAX_LENGTH; i++) {
+            addSample();
+        }
+    }
+
+    private void addSample() {
+        millis += 10;
+        queue.add(samples[next], millis);
+        next = (next + 1) % samples.length;
+    }
+
+    @Benchmark
+    public boolean stalled() {
+        return queue.stalled();
+    }
+
+    // One loop: record the latest current, then check for a stall
+    @Benchmark
+    public boolean addAndCheckStalled() {
+        addSample();
+        return queue.stalled();
+    }
+}
@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.autonomous;
+
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.PointTurnWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.math.Point;
+
+import java.util.List;
+
+/**
+ * A waypoint list flattened into arrays, so following it does the same constant amount of work
+ * every loop however long the path is. Waypoints are classified once into kind codes and their
+ * actions are sorted into typed slots, so nothing needs instanceof while driving. Segment i runs
+ * from waypoint i to waypoint i + 1.
+ *
+ * Segment geometry is worked out from where the waypoints are when this is built, so it has to
+ * be rebuilt if they move.
+ */
+public class CompiledPath {
+    public static final int NORMAL = 0;
+    public static final int STOP = 1;
+    public static final int POINT_TURN = 2;
+
+    public final int size;
+    public final Waypoint[] points;
+    public final double[] xs;
+    public final double[] ys;
+    public final int[] kinds;
+
+    // Each waypoint's action, in the slot for its type. An action that's both a once off and a
+    // meta subroutine only runs as a once off.
+    public final Subroutines.OnceOffSubroutine[] onceOff;
+    public final Subroutines.MetaSubroutine[] meta;
+    public final Subroutines.RepeatedSubroutine[] repeated;
+    public final Subroutines.ArrivalInterruptSubroutine[] arrivalInterrupts;
+
+    // Clones of each waypoint that we move along the segment ending there while tracking it,
+    // so the controller sees the waypoint's heading and metadata
+    public final Waypoint[] lookaheads;
+
+    public final double[] segmentDx;
+    public final double[] segmentDy;
+    public final double[] segmentLengthSquared;
+    public final double[] segmentLength;
+    public final double[] arcLength; // Distance along the path to each waypoint
+
+    public CompiledPath(List<Waypoint> waypoints) {
+        size = waypoints.size();
+        points = waypoints.toArray(new Waypoint[size]);
+        xs = new double[size];
+        ys = new double[size];
+        kinds = new int[size];
+        onceOff = new Subroutines.OnceOffSubroutine[size];
+        meta = new Subroutines.MetaSubroutine[size];
+        repeated = new Subroutines.RepeatedSubroutine[size];
+        arrivalInterrupts = new Subroutines.ArrivalInterruptSubroutine[size];
+        lookaheads = new Waypoint[size];
+        segmentDx = new double[size];
+        segmentDy = new double[size];
+        segmentLengthSquared = new double[size];
+        segmentLength = new double[size];
+        arcLength = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            Waypoint w = points[i];
+            xs[i] = w.x;
+            ys[i] = w.y;
+            if (w instanceof StopWaypoint) {
+                kinds[i] = STOP;
+            } else if (w instanceof PointTurnWaypoint) {
+                kinds[i] = POINT_TURN;
+            } else {
+                kinds[i] = NORMAL;
+            }
+
+            Subroutines.Subroutine action = w.action;
+            if (action instanceof Subroutines.OnceOffSubroutine) {
+                onceOff[i] = (Subroutines.OnceOffSubroutine) action;
+            } else if (action instanceof Subroutines.MetaSubroutine) {
+                meta[i] = (Subroutines.MetaSubroutine) action;
+            }
+            if (action instanceof Subroutines.RepeatedSubroutine) {
+                repeated[i] = (Subroutines.RepeatedSubroutine) action;
+            }
+            if (action instanceof Subroutines.ArrivalInterruptSubroutine) {
+                arrivalInterrupts[i] = (Subroutines.ArrivalInterruptSubroutine) action;
+            }
+            lookaheads[i] = w.clone();
+
+            // The last waypoint has no segment after it
+            if (i + 1 < size) {
+                segmentDx[i] = points[i + 1].x - w.x;
+                segmentDy[i] = points[i + 1].y - w.y;
+                segmentLengthSquared[i] = segmentDx[i] * segmentDx[i] + segmentDy[i] * segmentDy[i];
+                segmentLength[i] = Math.sqrt(segmentLengthSquared[i]);
+            }
+            if (i > 0) {
+                arcLength[i] = arcLength[i - 1] + segmentLength[i - 1];
+            }
+        }
+    }
+
+    /**
+     * Projects p onto the line through a segment, the same way MathUtil.projectOntoSegment does,
+     * using the precomputed segment vector.
+     */
+    public double project(int segment, Point p) {
+        if (segmentLengthSquared[segment] == 0) {
+            return 0;
+        }
+        Waypoint start = points[segment];
+        return ((p.x - start.x) * segmentDx[segment] + (p.y - start.y) * segmentDy[segment])
+                / segmentLengthSquared[segment];
+    }
+
+    // The point t of the way along a segment, written into out
+    public Point pointAt(int segment, double t, Point out) {
+        Waypoint start = points[segment];
+        return out.set(start.x + segmentDx[segment] * t, start.y + segmentDy[segment] * t);
+    }
+
+    // How far along the whole path the point t of the way along a segment is
+    public double distanceAlong(int segment, double t) {
+        return arcLength[segment] + segmentLength[segment] * t;
+    }
+
+    public double totalLength() {
+        return arcLength[size - 1];
+    }
+}
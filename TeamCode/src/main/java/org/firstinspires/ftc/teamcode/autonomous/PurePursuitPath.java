@@ -8,14 +8,15 @@ import org.firstinspires.ftc.teamcode.autonomous.controllers.MecanumPurePursuitC
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.HeadingControlledWaypoint;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.PointTurnWaypoint;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
-import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
-import org.firstinspires.ftc.teamcode.common.math.Line;
+import org.firstinspires.ftc.teamcode.common.LoopLogger;
 import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Point;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.MecanumPowers;
 import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -24,14 +25,32 @@ import java.util.List;
 public class PurePursuitPath {
     public static double TRACK_SPEED = 0.5;
     public static double DEAD_MAN_SWITCH = 2000;
+    public static int MAX_ADVANCES_PER_TICK = 8;
     private SkystoneHardware robot;
     public List<Waypoint> waypoints;
+    public CompiledPath compiled; // What update() actually follows, rebuilt by reverse()
 
     // currPoint in 0..n-2 means we're on the path from waypoints[currPoint] to
     // waypoints[currPoint + 1]. currPoint = n-1 means we're done.
     public int currPoint;
-    boolean interrupting;
+    public boolean interrupting;
     public ElapsedTime timeUntilDeadman;
+    public ElapsedTime timeSinceStart;
+    public double distanceAlongPath; // Where we were last projected onto the path, in inches
+    public int advancesThisTick;
+
+    // The tick each waypoint's subroutines last ran on, so none of them run twice in one update
+    private int tick;
+    private int[] repeatedRanOn;
+    private int[] arrivalRanOn;
+    private int[] interruptRanOn;
+
+    // Reused every update so following a path doesn't allocate
+    private Pose robotPosition;
+    private Pose robotVelocity;
+    private MecanumPowers powers;
+    private Point center;
+    private Point intersection;
 
     public PurePursuitPath(SkystoneHardware robot) {
         this(robot, new LinkedList<>());
@@ -42,8 +61,8 @@ public class PurePursuitPath {
     }
 
     public PurePursuitPath(SkystoneHardware robot, List<Waypoint> waypoints) {
-        // We need to deep copy our linked list so the same point doesn't get flipped multiple times
-        this.waypoints = new LinkedList<>();
+        // We need to deep copy our list so the same point doesn't get flipped multiple times
+        this.waypoints = new ArrayList<>(waypoints.size());
         for (Waypoint w : waypoints) {
             this.waypoints.add(w.clone());
         }
@@ -51,11 +70,21 @@ public class PurePursuitPath {
         this.currPoint = 0;
         this.robot = robot;
         this.interrupting = false;
-        this.timeUntilDeadman = new ElapsedTime();
+        this.timeUntilDeadman = robot.clock.timer();
+        this.timeSinceStart = robot.clock.timer();
+        this.robotPosition = new Pose(0, 0, 0);
+        this.robotVelocity = new Pose(0, 0, 0);
+        this.powers = new MecanumPowers(0, 0, 0, 0);
+        this.center = new Point(0, 0);
+        this.intersection = new Point(0, 0);
 
         if (!(waypoints.get(waypoints.size() - 1) instanceof StopWaypoint)) {
             throw new IllegalArgumentException("Final Pure Pursuit waypoint must be a StopWaypoint!");
         }
+        this.compiled = new CompiledPath(this.waypoints);
+        this.repeatedRanOn = new int[this.waypoints.size()];
+        this.arrivalRanOn = new int[this.waypoints.size()];
+        this.interruptRanOn = new int[this.waypoints.size()];
     }
 
     public void reverse() {
@@ -68,133 +97,147 @@ public class PurePursuitPath {
                 hCW.targetHeading = MathUtil.angleWrap(-hCW.targetHeading);
             }
         }
+        compiled = new CompiledPath(waypoints);
     }
 
     public void update() {
-        Pose robotPosition = robot.pose();
-        Pose robotVelocity = robot.localizer.relVelocity();
+        robot.pose(robotPosition);
+        robot.localizer.relVelocity(robotVelocity);
+        CompiledPath path = compiled;
+        tick++;
+        advancesThisTick = 0;
         // Note - our currPoint will only be the last point in the list once we're done moving
         // the robot
 
-        // Before we do anything else, check if we're being interrupted
-        if (interrupting) {
-            boolean advance = ((Subroutines.ArrivalInterruptSubroutine) waypoints.get(currPoint).action).runCycle(robot);
-            if (advance) {
-                interrupting = false;
-            } else {
-                return; // Don't do anything else this cycle
-            }
-        }
-
-        // Check whether we should advance to the next piece of the curve
-        boolean jumpToNextSegment;
-        do {
-            jumpToNextSegment = false;
-            Waypoint target = waypoints.get(currPoint + 1);
-
-            // Stop waypoint deadman switch
-            if (target instanceof StopWaypoint && timeUntilDeadman.milliseconds() > DEAD_MAN_SWITCH) {
-                jumpToNextSegment = true;
-            } else if (!(target instanceof StopWaypoint) || robot.localizer.relVelocity().radius() > 1) {
-                timeUntilDeadman.reset();
-            }
-            if (target instanceof StopWaypoint) {
-                if (robotPosition.distance(target) < ((StopWaypoint) target).allowedPositionError) {
-                    jumpToNextSegment = true;
-                }
-            } else if (target instanceof PointTurnWaypoint) {
-                PointTurnWaypoint ptTarget = (PointTurnWaypoint) target;
-                if (Math.abs(robotPosition.heading - ptTarget.targetHeading) < ptTarget.allowedHeadingError) {
-                    jumpToNextSegment = true;
-                }
-            } else {
-                if (robotPosition.distance(target) < target.followDistance) {
-                    jumpToNextSegment = true;
+        // Each pass runs the interrupt we're waiting on, if there is one, then advances past every
+        // waypoint we've already satisfied until one interrupts us. No subroutine runs twice in a
+        // tick, and we stop advancing after MAX_ADVANCES_PER_TICK waypoints and pick up from there
+        // next loop, so a single update can't take arbitrarily long.
+        while (true) {
+            // Before we do anything else, check if we're being interrupted
+            if (interrupting) {
+                if (interruptRanOn[currPoint] == tick) {
+                    return;
                 }
-            }
-
-            // Run repeated subroutines, and see if they return true
-            Subroutines.Subroutine action = waypoints.get(currPoint + 1).action;
-            if (action instanceof Subroutines.RepeatedSubroutine) {
-                if (((Subroutines.RepeatedSubroutine) action).runLoop(robot, this)) {
-                    jumpToNextSegment = true;
+                interruptRanOn[currPoint] = tick;
+                if (path.arrivalInterrupts[currPoint].runCycle(robot)) {
+                    interrupting = false;
+                } else {
+                    return; // Don't do anything else this cycle
                 }
             }
 
-            if (jumpToNextSegment) {
-                currPoint++;
-                action = waypoints.get(currPoint).action;
-                if (action instanceof Subroutines.OnceOffSubroutine) {
-                    ((Subroutines.OnceOffSubroutine) action).runOnce(robot);
-                } else if (action instanceof Subroutines.MetaSubroutine) {
-                    ((Subroutines.MetaSubroutine) action).runOnce(this, robot);
+            // Check whether we should advance to the next piece of the curve
+            while (!finished() && advancesThisTick < MAX_ADVANCES_PER_TICK && reachedNext(path)) {
+                // Meta subroutines can move currPoint, so remember where we arrived
+                int arrived = ++currPoint;
+                advancesThisTick++;
+                if (arrivalRanOn[arrived] != tick) {
+                    arrivalRanOn[arrived] = tick;
+                    if (path.onceOff[arrived] != null) {
+                        path.onceOff[arrived].runOnce(robot);
+                    } else if (path.meta[arrived] != null) {
+                        path.meta[arrived].runOnce(this, robot);
+                    }
                 }
-                if (action instanceof Subroutines.ArrivalInterruptSubroutine) {
+                if (path.arrivalInterrupts[arrived] != null) {
                     interrupting = true;
-                    // TODO make code less gross by either not using or committing to recursion
-                    this.update();
-                    return;
+                    break;
                 }
+            }
 
+            if (!interrupting) {
+                break;
             }
-        } while (jumpToNextSegment && currPoint < waypoints.size() - 1);
+        }
         if (finished()) {return;}
 
-        Waypoint target = waypoints.get(currPoint + 1);
+        int next = currPoint + 1;
+        Waypoint target = path.points[next];
         // If we're making a stop and in the stop portion of the move
-        if (target instanceof StopWaypoint && robotPosition.distance(target) < target.followDistance) {
+        if (path.kinds[next] == CompiledPath.STOP && robotPosition.distance(target) < target.followDistance) {
             robot.setPowers(MecanumPurePursuitController.goToPosition(
-                    robotPosition, robotVelocity, target, (StopWaypoint) target));
-            System.out.println("Locking onto point " + target.toString());
-        } else if (target instanceof PointTurnWaypoint) {
+                    robotPosition, robotVelocity, target, (StopWaypoint) target, powers));
+            if (LoopLogger.enabled(LoopLogger.Level.DEBUG)) {
+                LoopLogger.debug("PurePursuit", "Locking onto point %s", target);
+            }
+        } else if (path.kinds[next] == CompiledPath.POINT_TURN) {
             robot.setPowers(MecanumPurePursuitController.goToPosition(
-                    robotPosition, robotVelocity, target, null));
+                    robotPosition, robotVelocity, target, null, powers));
+        } else {
+            trackToLine(path, currPoint);
+        }
+    }
+
+    // Whether we're done with the segment we're on. Runs the next waypoint's repeated subroutine
+    // if it hasn't run yet this tick.
+    private boolean reachedNext(CompiledPath path) {
+        boolean jumpToNextSegment = false;
+        int next = currPoint + 1;
+        Waypoint target = path.points[next];
+        int kind = path.kinds[next];
+
+        // Stop waypoint deadman switch
+        if (kind == CompiledPath.STOP && timeUntilDeadman.milliseconds() > DEAD_MAN_SWITCH) {
+            jumpToNextSegment = true;
+        } else if (kind != CompiledPath.STOP || robotVelocity.radius() > 1) {
+            timeUntilDeadman.reset();
+        }
+        if (kind == CompiledPath.STOP) {
+            if (robotPosition.distance(target) < ((StopWaypoint) target).allowedPositionError) {
+                jumpToNextSegment = true;
+            }
+        } else if (kind == CompiledPath.POINT_TURN) {
+            PointTurnWaypoint ptTarget = (PointTurnWaypoint) target;
+            if (Math.abs(robotPosition.heading - ptTarget.targetHeading) < ptTarget.allowedHeadingError) {
+                jumpToNextSegment = true;
+            }
         } else {
-            trackToLine(
-                    robotPosition, robotVelocity,
-                    waypoints.get(currPoint),
-                    waypoints.get(currPoint + 1));
+            if (robotPosition.distance(target) < target.followDistance) {
+                jumpToNextSegment = true;
+            }
+        }
+
+        // Run repeated subroutines, and see if they return true
+        if (path.repeated[next] != null && repeatedRanOn[next] != tick) {
+            repeatedRanOn[next] = tick;
+            if (path.repeated[next].runLoop(robot, this)) {
+                jumpToNextSegment = true;
+            }
         }
+        return jumpToNextSegment;
     }
 
     /**
-     * @param robotPosition a pose representing the current position and orientation of the robot
-     * @param start the starting point of the line segment we're following. Can be any subclass of
-     *             waypoint.
-     * @param mid the end point of the line segment we're following. Must be a normal waypoint or
-     *            a heading controlled waypoint. Passing a normal waypoint will cause the robot to
-     *            turn itself in the direction of travel, while passing a heading controlled
-     *            waypoint will cause the robot's heading to lock to the desired direction.
+     * Follows segment from waypoints[segment] to waypoints[segment + 1]. The end point must be a
+     * normal waypoint or a heading controlled waypoint. A normal waypoint will cause the robot to
+     * turn itself in the direction of travel, while a heading controlled waypoint will cause the
+     * robot's heading to lock to the desired direction.
      */
-    private void trackToLine(Pose robotPosition, Pose robotVelocity, Waypoint start, Waypoint mid) {
-        Line currSegment = new Line(start, mid);
-        Point center = currSegment.nearestLinePoint(robotPosition);
+    private void trackToLine(CompiledPath path, int segment) {
+        Waypoint start = path.points[segment];
+        Waypoint mid = path.points[segment + 1];
+        double t = path.project(segment, robotPosition);
+        path.pointAt(segment, t, center);
+        distanceAlongPath = path.distanceAlong(segment, Math.min(Math.max(t, 0), 1));
 
-        Point intersection = MathUtil.lineSegmentCircleIntersection(
-                start, mid, center, mid.followDistance
-        );
+        // center is on the line, so there's always an intersection
+        MathUtil.lineSegmentCircleIntersection(start, mid, center, mid.followDistance, intersection);
 
         // If our line intersects at all
-        // We clone the midpoint to preserve metadata, if it exists
-        Waypoint target = mid.clone();
+        // We aim for a clone of the midpoint to preserve metadata, if it exists
+        Waypoint target = path.lookaheads[segment + 1];
         target.x = intersection.x;
         target.y = intersection.y;
         robot.setPowers(MecanumPurePursuitController.goToPosition(robotPosition, robotVelocity,
-                target, mid instanceof StopWaypoint ? (StopWaypoint) mid : null));
+                target, path.kinds[segment + 1] == CompiledPath.STOP ? (StopWaypoint) mid : null, powers));
     }
 
     public Canvas draw(Canvas t) {
-        double[] xPoints = new double[waypoints.size()];
-        double[] yPoints = new double[waypoints.size()];
-
-        for (int i = 0; i < waypoints.size(); i++) {
-            xPoints[i] = waypoints.get(i).x;
-            yPoints[i] = waypoints.get(i).y;
-        }
-        return t.setStroke("red").setStrokeWidth(1).strokePolyline(xPoints, yPoints);
+        return t.setStroke("red").setStrokeWidth(1).strokePolyline(compiled.xs, compiled.ys);
     }
 
     public boolean finished() {
-        return currPoint >= waypoints.size() - 1;
+        return currPoint >= compiled.size - 1;
     }
 }
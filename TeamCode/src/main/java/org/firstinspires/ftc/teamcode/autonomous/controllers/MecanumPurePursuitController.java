@@ -5,6 +5,7 @@ import com.acmerobotics.dashboard.config.Config;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.HeadingControlledWaypoint;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.LoopLogger;
 import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Point;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
@@ -20,16 +21,32 @@ public class MecanumPurePursuitController {
     public static Pose ONE_AWAY_POWERS = new Pose(0.08, 0.12, 0.1);
     public static double CLOSE_EXPONENT = 1.0/6.0;
 
+    // Where we aim when slipping into a stop. Autos can be simulated on several threads at once,
+    // so each thread gets its own.
+    private static final ThreadLocal<Point> UNDERSHOOT_TARGET = new ThreadLocal<Point>() {
+        @Override
+        protected Point initialValue() {
+            return new Point(0, 0);
+        }
+    };
+
 
-    private static Pose relDistanceToTarget(Pose robot, Point target) {
-        double distance = target.minus(robot).radius();
-        double relAngle = robot.minus(target).atan() - robot.heading;
-        double relX = distance * Math.cos(relAngle);
-        double relY = distance * Math.sin(relAngle);
-        return new Pose(relX, relY, relAngle);
+    // Angle from the target to the robot, relative to the robot's heading. The target is this
+    // far away, so its position relative to the robot is (distance * cos, distance * sin).
+    private static double relAngleToTarget(Pose robot, Point target) {
+        return Math.atan2(robot.y - target.y, robot.x - target.x) - robot.heading;
     }
 
     public static MecanumPowers goToPosition(Pose robotPose, Pose robotVelocity, Waypoint target, StopWaypoint finalTarget) {
+        return goToPosition(robotPose, robotVelocity, target, finalTarget, new MecanumPowers(0, 0, 0, 0));
+    }
+
+    /**
+     * Writes the powers into powers and returns it. Everything is worked out in local variables,
+     * so nothing is allocated on the way.
+     */
+    public static MecanumPowers goToPosition(Pose robotPose, Pose robotVelocity, Waypoint target,
+                                             StopWaypoint finalTarget, MecanumPowers powers) {
 
         // Sometimes we need to move accurately to a position, while many other times we just have
         // to get "about" somewhere - our waypoints are approximations anyway. We'll assume we only
@@ -37,17 +54,24 @@ public class MecanumPurePursuitController {
         // using a shorter look ahead distance. If finalTarget is set, we'll try to finely adjust
         // speed and slippage to hit that point. Otherwise, we'll just YEET over there.
 
-        System.out.println("Current velocity: " + robotVelocity.toString());
+        boolean debug = LoopLogger.enabled(LoopLogger.Level.DEBUG);
+        if (debug) {
+            LoopLogger.debug("PurePursuit", "Current velocity: %s", robotVelocity);
+        }
         if (finalTarget == null || robotPose.distance(finalTarget) > 18) {
-            Pose relPPTarget = relDistanceToTarget(robotPose, target);
+            double distance = robotPose.distance(target);
+            double relAngle = relAngleToTarget(robotPose, target);
 
             // We negate x and y power because we want to move in the opposite direction of our error
-            Pose translationPowers = relPPTarget.scale(-1).divideBy(GUNNING_REDUCTION_DISTANCES);
-            System.out.println(translationPowers.toString());
+            double xPower = -(distance * Math.cos(relAngle)) / GUNNING_REDUCTION_DISTANCES.x;
+            double yPower = -(distance * Math.sin(relAngle)) / GUNNING_REDUCTION_DISTANCES.y;
+            if (debug) {
+                LoopLogger.debug("PurePursuit", "Translation powers %.3f, %.3f", xPower, yPower);
+            }
 
             // Heading always wants to stop at a point, so we'll treat this the same regardless if we're
             // at a stop waypoint or a normal one
-            double forwardAngle = target.minus(robotPose).atan();
+            double forwardAngle = Math.atan2(target.y - robotPose.y, target.x - robotPose.x);
             double backwardAngle = forwardAngle + Math.PI;
             double angleToForward = MathUtil.angleWrap(forwardAngle - robotPose.heading);
             double angleToBackward = MathUtil.angleWrap(backwardAngle - robotPose.heading);
@@ -56,39 +80,54 @@ public class MecanumPurePursuitController {
                     ((HeadingControlledWaypoint) target).targetHeading : autoAngle;
 
             double angleToTarget = MathUtil.angleWrap(desiredAngle - robotPose.heading);
-            translationPowers.heading = angleToTarget / GUNNING_REDUCTION_DISTANCES.heading;
-            return new MecanumPowers(translationPowers);
+            return powers.set(xPower, yPower, angleToTarget / GUNNING_REDUCTION_DISTANCES.heading);
         } else if (robotVelocity.radius() > MIN_SLIP_SPEED && robotPose.distance(finalTarget) > UNDERSHOOT_DIST) { // If we're moving more than 8 in/sec and we're close to our target
             // We don't want to aim quite for our target - we want to undershoot a fair bit
             // We won't use this very often - only when we need to line up somewhere exactly. Everywhere else,
             // we'll just allow a lot of error in our stopwaypoint
-            Point t = MathUtil.lineSegmentCircleIntersection(robotPose, finalTarget, finalTarget, UNDERSHOOT_DIST);
-
-            // We're approaching a point, and we need to not overshoot
-            Pose relVelocity = new Pose(robotVelocity.rotated(-robotPose.heading), robotVelocity.heading);
-            System.out.println(relVelocity);
-            Pose relSlipDistances = relVelocity.multiply(SLIP_DISTANCES);
-            System.out.println(relSlipDistances);
-            Pose relAbsTarget = relDistanceToTarget(robotPose, t).add(relSlipDistances);
-            System.out.println(relAbsTarget);
-            // We negate this here so our negation in translationPowers is cancelled out
-            relAbsTarget.heading = -MathUtil.angleWrap(finalTarget.targetHeading - robotPose.heading - relSlipDistances.heading);
-
-            Pose translationPowers = relAbsTarget.scale(-1).divideBy(GUNNING_REDUCTION_DISTANCES);
-            return new MecanumPowers(translationPowers);
+            // We're further away than UNDERSHOOT_DIST, so there's always an intersection
+            Point t = UNDERSHOOT_TARGET.get();
+            MathUtil.lineSegmentCircleIntersection(robotPose, finalTarget, finalTarget, UNDERSHOOT_DIST, t);
+
+            // We're approaching a point, and we need to not overshoot. Rotate our velocity to be
+            // robot relative and work out how far we'll slip.
+            double cos = Math.cos(-robotPose.heading);
+            double sin = Math.sin(-robotPose.heading);
+            double relVelocityX = robotVelocity.x * cos - robotVelocity.y * sin;
+            double relVelocityY = robotVelocity.x * sin + robotVelocity.y * cos;
+            double slipX = relVelocityX * SLIP_DISTANCES.x;
+            double slipY = relVelocityY * SLIP_DISTANCES.y;
+            double slipHeading = robotVelocity.heading * SLIP_DISTANCES.heading;
+
+            double distance = robotPose.distance(t);
+            double relAngle = relAngleToTarget(robotPose, t);
+            double relTargetX = distance * Math.cos(relAngle) + slipX;
+            double relTargetY = distance * Math.sin(relAngle) + slipY;
+            // We negate this here so our negation in the powers is cancelled out
+            double relTargetHeading = -MathUtil.angleWrap(finalTarget.targetHeading - robotPose.heading - slipHeading);
+            if (debug) {
+                LoopLogger.debug("PurePursuit", "Relative velocity (%.3f, %.3f), slip (%.3f, %.3f, %.3f), target (%.3f, %.3f)",
+                        relVelocityX, relVelocityY, slipX, slipY, slipHeading, relTargetX, relTargetY);
+            }
+
+            return powers.set(
+                    -relTargetX / GUNNING_REDUCTION_DISTANCES.x,
+                    -relTargetY / GUNNING_REDUCTION_DISTANCES.y,
+                    -relTargetHeading / GUNNING_REDUCTION_DISTANCES.heading
+            );
         } else {
             // Now we just need to nudge the robot. We'll hold our heading with a simple P-loop,
             // and adjust our position with a special function
-            Pose relAbsTarget = relDistanceToTarget(robotPose, finalTarget);
+            double distance = robotPose.distance(finalTarget);
+            double relAngle = relAngleToTarget(robotPose, finalTarget);
             double angleToTarget = MathUtil.angleWrap(finalTarget.targetHeading - robotPose.heading);
 
             // Now, we're going to use the polynomial function x^1/6 to compute our powers
-            Pose dirPowers = new Pose(
-                    -MathUtil.powRetainingSign(relAbsTarget.x, CLOSE_EXPONENT),
-                    -MathUtil.powRetainingSign(relAbsTarget.y, CLOSE_EXPONENT),
-                    MathUtil.powRetainingSign(angleToTarget, CLOSE_EXPONENT)
+            return powers.set(
+                    -MathUtil.powRetainingSign(distance * Math.cos(relAngle), CLOSE_EXPONENT) * ONE_AWAY_POWERS.x,
+                    -MathUtil.powRetainingSign(distance * Math.sin(relAngle), CLOSE_EXPONENT) * ONE_AWAY_POWERS.y,
+                    MathUtil.powRetainingSign(angleToTarget, CLOSE_EXPONENT) * ONE_AWAY_POWERS.heading
             );
-            return new MecanumPowers(dirPowers.multiply(ONE_AWAY_POWERS));
         }
     }
 }
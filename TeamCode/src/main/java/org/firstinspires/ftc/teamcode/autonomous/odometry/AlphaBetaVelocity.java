@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+import com.acmerobotics.dashboard.config.Config;
+
+/**
+ * Alpha-beta filter on each axis. Predicts forward at the current velocity, then corrects position
+ * by ALPHA and velocity by BETA of whatever the prediction missed by.
+ */
+@Config
+public class AlphaBetaVelocity implements VelocityEstimator {
+    public static double ALPHA = 0.5;
+    public static double BETA = 0.1;
+
+    private double[] position = new double[3];
+    private double[] velocity = new double[3];
+    private long lastTime;
+    private boolean initialized;
+
+    @Override
+    public void update(PoseHistory history) {
+        long time = history.time(0);
+        if (!initialized) {
+            position[0] = history.x(0);
+            position[1] = history.y(0);
+            position[2] = history.heading(0);
+            lastTime = time;
+            initialized = true;
+            return;
+        }
+
+        double dt = (time - lastTime) / NANOS_PER_SECOND;
+        if (dt <= 0) {
+            return;
+        }
+        lastTime = time;
+
+        filter(0, history.x(0), dt);
+        filter(1, history.y(0), dt);
+        filter(2, history.heading(0), dt);
+    }
+
+    private void filter(int axis, double measured, double dt) {
+        double predicted = position[axis] + velocity[axis] * dt;
+        double residual = measured - predicted;
+        position[axis] = predicted + ALPHA * residual;
+        velocity[axis] += BETA * residual / dt;
+    }
+
+    @Override public double x() { return velocity[0]; }
+    @Override public double y() { return velocity[1]; }
+    @Override public double heading() { return velocity[2]; }
+}
@@ -0,0 +1,29 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+/**
+ * Two point difference between the newest pose and the one VELOCITY_READ_TICKS before it.
+ */
+public class FiniteDifferenceVelocity implements VelocityEstimator {
+    private double x, y, heading;
+
+    @Override
+    public void update(PoseHistory history) {
+        if (history.size() < 2) {
+            x = y = heading = 0;
+            return;
+        }
+
+        // We'd like to pick a time up to five reads ago, but we might not be able to
+        int oldAge = Math.min(TwoWheelTrackingLocalizer.VELOCITY_READ_TICKS, history.size() - 1);
+
+        double scaleFactor = (double) (history.time(0) - history.time(oldAge)) / NANOS_PER_SECOND;
+        double inverse = 1 / scaleFactor;
+        x = (history.x(0) - history.x(oldAge)) * inverse;
+        y = (history.y(0) - history.y(oldAge)) * inverse;
+        heading = (history.heading(0) - history.heading(oldAge)) * inverse;
+    }
+
+    @Override public double x() { return x; }
+    @Override public double y() { return y; }
+    @Override public double heading() { return heading; }
+}
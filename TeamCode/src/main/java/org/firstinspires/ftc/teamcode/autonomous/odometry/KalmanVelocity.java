@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+import com.acmerobotics.dashboard.config.Config;
+
+/**
+ * Constant velocity Kalman filter on each axis, with random acceleration as process noise and
+ * odometry position as the measurement. The 2x2 covariance is written out by hand.
+ */
+@Config
+public class KalmanVelocity implements VelocityEstimator {
+    // Process noise is acceleration spectral density, measurement noise is position variance
+    public static double PROCESS_NOISE = 400; // in^2/s^3
+    public static double HEADING_PROCESS_NOISE = 40; // rad^2/s^3
+    public static double MEASUREMENT_NOISE = 1e-4; // in^2
+    public static double HEADING_MEASUREMENT_NOISE = 1e-5; // rad^2
+    public static double INITIAL_VELOCITY_VARIANCE = 1e4;
+
+    private double[] position = new double[3];
+    private double[] velocity = new double[3];
+    // Covariance entries, pp is position variance and vv velocity variance
+    private double[] pp = new double[3];
+    private double[] pv = new double[3];
+    private double[] vv = new double[3];
+    private long lastTime;
+    private boolean initialized;
+
+    @Override
+    public void update(PoseHistory history) {
+        long time = history.time(0);
+        if (!initialized) {
+            for (int axis = 0; axis < 3; axis++) {
+                pp[axis] = measurementNoise(axis);
+                pv[axis] = 0;
+                vv[axis] = INITIAL_VELOCITY_VARIANCE;
+            }
+            position[0] = history.x(0);
+            position[1] = history.y(0);
+            position[2] = history.heading(0);
+            lastTime = time;
+            initialized = true;
+            return;
+        }
+
+        double dt = (time - lastTime) / NANOS_PER_SECOND;
+        if (dt <= 0) {
+            return;
+        }
+        lastTime = time;
+
+        filter(0, history.x(0), dt);
+        filter(1, history.y(0), dt);
+        filter(2, history.heading(0), dt);
+    }
+
+    private double measurementNoise(int axis) {
+        return axis == 2 ? HEADING_MEASUREMENT_NOISE : MEASUREMENT_NOISE;
+    }
+
+    private void filter(int axis, double measured, double dt) {
+        double q = axis == 2 ? HEADING_PROCESS_NOISE : PROCESS_NOISE;
+
+        // Predict
+        position[axis] += velocity[axis] * dt;
+        double newPP = pp[axis] + 2 * dt * pv[axis] + dt * dt * vv[axis] + q * dt * dt * dt / 3;
+        double newPV = pv[axis] + dt * vv[axis] + q * dt * dt / 2;
+        double newVV = vv[axis] + q * dt;
+
+        // Correct
+        double innovationVariance = newPP + measurementNoise(axis);
+        double positionGain = newPP / innovationVariance;
+        double velocityGain = newPV / innovationVariance;
+        double residual = measured - position[axis];
+        position[axis] += positionGain * residual;
+        velocity[axis] += velocityGain * residual;
+
+        pp[axis] = (1 - positionGain) * newPP;
+        pv[axis] = (1 - positionGain) * newPV;
+        vv[axis] = newVV - velocityGain * newPV;
+    }
+
+    @Override public double x() { return velocity[0]; }
+    @Override public double y() { return velocity[1]; }
+    @Override public double heading() { return velocity[2]; }
+}
@@ -0,0 +1,80 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+import com.acmerobotics.dashboard.config.Config;
+
+/**
+ * Least squares slope through the last WINDOW poses. The sums the fit needs are kept up to date
+ * as poses enter and leave the window, so each update is O(1). They're rebuilt from scratch once
+ * per window so rounding error can't pile up and times stay small relative to their origin.
+ */
+@Config
+public class LeastSquaresVelocity implements VelocityEstimator {
+    public static int WINDOW = 10;
+
+    private double x, y, heading;
+
+    private long origin; // Times in the sums are seconds since this
+    private int count;
+    private int updatesSinceRebuild;
+    private double sumT, sumTT;
+    private double[] sumP = new double[3];
+    private double[] sumTP = new double[3];
+
+    @Override
+    public void update(PoseHistory history) {
+        // We can only drop a pose from the sums while the history still remembers it
+        int window = Math.min(Math.min(WINDOW, history.capacity() - 1), history.size());
+
+        if (updatesSinceRebuild >= window || (window != count && window != count + 1)) {
+            rebuild(history, window);
+        } else {
+            accumulate(history, 0, 1);
+            if (count > window) {
+                accumulate(history, window, -1);
+            }
+            updatesSinceRebuild++;
+        }
+
+        double denominator = count * sumTT - sumT * sumT;
+        if (count < 2 || denominator == 0) {
+            x = y = heading = 0;
+            return;
+        }
+        x = (count * sumTP[0] - sumT * sumP[0]) / denominator;
+        y = (count * sumTP[1] - sumT * sumP[1]) / denominator;
+        heading = (count * sumTP[2] - sumT * sumP[2]) / denominator;
+    }
+
+    private void rebuild(PoseHistory history, int window) {
+        origin = history.time(window - 1);
+        count = 0;
+        sumT = sumTT = 0;
+        for (int i = 0; i < 3; i++) {
+            sumP[i] = sumTP[i] = 0;
+        }
+        for (int age = window - 1; age >= 0; age--) {
+            accumulate(history, age, 1);
+        }
+        updatesSinceRebuild = 0;
+    }
+
+    // Adds (sign 1) or removes (sign -1) a pose from the sums
+    private void accumulate(PoseHistory history, int age, int sign) {
+        double t = (history.time(age) - origin) / NANOS_PER_SECOND;
+        count += sign;
+        sumT += sign * t;
+        sumTT += sign * t * t;
+        accumulateAxis(0, t, sign * history.x(age));
+        accumulateAxis(1, t, sign * history.y(age));
+        accumulateAxis(2, t, sign * history.heading(age));
+    }
+
+    private void accumulateAxis(int axis, double t, double p) {
+        sumP[axis] += p;
+        sumTP[axis] += t * p;
+    }
+
+    @Override public double x() { return x; }
+    @Override public double y() { return y; }
+    @Override public double heading() { return heading; }
+}
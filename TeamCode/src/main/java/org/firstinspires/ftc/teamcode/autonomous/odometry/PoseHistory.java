@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+/**
+ * Fixed size ring buffer of timestamped poses, kept as parallel primitive arrays so adding a pose
+ * never allocates and looking one up is O(1) no matter how long the match has run. Once full, the
+ * oldest pose is overwritten.
+ */
+public class PoseHistory {
+    private long[] time;
+    private double[] x;
+    private double[] y;
+    private double[] heading;
+
+    private int newest; // Index of the most recent pose
+    private int size;
+
+    public PoseHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Pose history needs room for at least two poses");
+        }
+        time = new long[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        heading = new double[capacity];
+        newest = -1;
+        size = 0;
+    }
+
+    public void add(double x, double y, double heading, long time) {
+        newest = (newest + 1) % this.time.length;
+        this.x[newest] = x;
+        this.y[newest] = y;
+        this.heading[newest] = heading;
+        this.time[newest] = time;
+        size = Math.min(size + 1, this.time.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return time.length;
+    }
+
+    /* Lookups are by age, so 0 is the newest pose and size() - 1 the oldest one we still have */
+    public long time(int age) { return time[index(age)]; }
+    public double x(int age) { return x[index(age)]; }
+    public double y(int age) { return y[index(age)]; }
+    public double heading(int age) { return heading[index(age)]; }
+
+    private int index(int age) {
+        if (age < 0 || age >= size) {
+            throw new IndexOutOfBoundsException("Age " + age + " out of bounds for history of " + size);
+        }
+        return (newest - age + time.length) % time.length;
+    }
+}
@@ -3,10 +3,10 @@ package org.firstinspires.ftc.teamcode.autonomous.odometry;
 import com.acmerobotics.dashboard.config.Config;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.DecompositionSolver;
 import org.apache.commons.math3.linear.LUDecomposition;
-import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.firstinspires.ftc.teamcode.common.Clock;
+import org.firstinspires.ftc.teamcode.common.LoopLogger;
 import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Point;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
@@ -14,13 +14,14 @@ import org.firstinspires.ftc.teamcode.common.math.TimePose;
 import org.openftc.revextensions2.RevBulkData;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 
 @Config
 public class TwoWheelTrackingLocalizer {
     public static double PARALLEL_TICKS_PER_INCH = 1111.587;
     public static double LATERAL_TICKS_PER_INCH = 1111.587;
     public static int VELOCITY_READ_TICKS = 5;
+    public static int POSE_HISTORY_LENGTH = 64; // Only read at construction
+    public static VelocityEstimator.Type VELOCITY_ESTIMATOR = VelocityEstimator.Type.FINITE_DIFFERENCE;
 
     public static int PARALLEL_ENCODER_PORT = 0;
     public static int LATERAL_ENCODER_PORT = 1;
@@ -28,7 +29,18 @@ public class TwoWheelTrackingLocalizer {
     public static double PARALLEL_Y_POS = -5.728;
     public static double LATERAL_X_POS = -6.944;
 
-    DecompositionSolver forwardSolver;
+    // LU factors of the wheel matrix, computed once. Subscripts are row and column, pivotN is the
+    // delta that ends up in row N after row swaps.
+    private double l10, l20, l21;
+    private double u00, u01, u02, u11, u12, u22;
+    private int pivot0, pivot1, pivot2;
+
+    private double[] deltas;
+    private double[] poseDelta;
+    private Pose robotPoseDelta;
+
+    // History timestamps come from here, the start pose's milliseconds are on the same timeline
+    private Clock clock;
 
     int[] prevWheelPositions;
     double prevHeading;
@@ -37,13 +49,56 @@ public class TwoWheelTrackingLocalizer {
     // External interfaces
     public Pose currentPosition;
     public Pose relativeRobotMovement;
-    public LinkedList<TimePose> prevPositions = new LinkedList<>();
+    public PoseHistory prevPositions; // Timestamps in nanoseconds
+    public VelocityEstimator velocityEstimator;
 
     public TwoWheelTrackingLocalizer(int parallelEncoder, int lateralEncoder) {
         this(parallelEncoder, lateralEncoder, new TimePose(new Pose(0, 0, 0)));
     }
 
     public TwoWheelTrackingLocalizer(int parallelEncoder, int lateralEncoder, TimePose start) {
+        this(parallelEncoder, lateralEncoder, start, Clock.SYSTEM);
+    }
+
+    public TwoWheelTrackingLocalizer(int parallelEncoder, int lateralEncoder, TimePose start, Clock clock) {
+        LUDecomposition decomposition = new LUDecomposition(wheelMatrix());
+        if (!decomposition.getSolver().isNonSingular()) {
+            throw new IllegalArgumentException("The specified configuration cannot support full localization");
+        }
+
+        RealMatrix l = decomposition.getL();
+        RealMatrix u = decomposition.getU();
+        int[] pivot = decomposition.getPivot();
+        l10 = l.getEntry(1, 0);
+        l20 = l.getEntry(2, 0);
+        l21 = l.getEntry(2, 1);
+        u00 = u.getEntry(0, 0);
+        u01 = u.getEntry(0, 1);
+        u02 = u.getEntry(0, 2);
+        u11 = u.getEntry(1, 1);
+        u12 = u.getEntry(1, 2);
+        u22 = u.getEntry(2, 2);
+        pivot0 = pivot[0];
+        pivot1 = pivot[1];
+        pivot2 = pivot[2];
+
+        deltas = new double[3];
+        poseDelta = new double[3];
+        robotPoseDelta = new Pose(0, 0, 0);
+
+        prevWheelPositions = new int[2]; // Initializes with zeros
+        wheelPorts = new int[]{parallelEncoder, lateralEncoder};
+
+        currentPosition = new Pose(start.x, start.y, start.heading);
+        relativeRobotMovement = new Pose(0, 0, 0);
+        prevPositions = new PoseHistory(Math.max(POSE_HISTORY_LENGTH, VELOCITY_READ_TICKS + 1));
+        velocityEstimator = VELOCITY_ESTIMATOR.create();
+        this.clock = clock;
+        addHistory(0, 0, 0, start.time * 1000000);
+    }
+
+    // Maps a robot relative pose change to what the wheels and IMU would read
+    static RealMatrix wheelMatrix() {
         Array2DRowRealMatrix inverseMatrix = new Array2DRowRealMatrix(3, 3);
 
         EncoderWheel[] WHEELS = {
@@ -61,19 +116,7 @@ public class TwoWheelTrackingLocalizer {
                     wheelPosition.x * y - wheelPosition.y * x);
         }
         inverseMatrix.setEntry(2, 2, 1.0);
-
-        forwardSolver = new LUDecomposition(inverseMatrix).getSolver();
-
-        if (!forwardSolver.isNonSingular()) {
-            throw new IllegalArgumentException("The specified configuration cannot support full localization");
-        }
-
-        prevWheelPositions = new int[2]; // Initializes with zeros
-        wheelPorts = new int[]{parallelEncoder, lateralEncoder};
-
-        currentPosition = new Pose(start.x, start.y, start.heading);
-        relativeRobotMovement = new Pose(0, 0, 0);
-        prevPositions.add(new TimePose(relativeRobotMovement, start.time));
+        return inverseMatrix;
     }
 
     public static double encoderTicksToInches(int ticks, double ticksPerInch) {
@@ -84,60 +127,101 @@ public class TwoWheelTrackingLocalizer {
         return (int) (inches * PARALLEL_TICKS_PER_INCH);
     }
 
+    // The current time in nanoseconds on the same timeline as the history
+    public long timeNanos() {
+        return clock.nanoTime();
+    }
+
     public void update(RevBulkData data, double heading) {
-        double[] deltas = new double[] {
-                encoderTicksToInches(data.getMotorCurrentPosition(PARALLEL_ENCODER_PORT) - prevWheelPositions[0],
-                        PARALLEL_TICKS_PER_INCH),
-                encoderTicksToInches(data.getMotorCurrentPosition(LATERAL_ENCODER_PORT) - prevWheelPositions[1],
-                        LATERAL_TICKS_PER_INCH),
-                MathUtil.angleWrap(heading - prevHeading)
-        };
-        System.out.println(Arrays.toString(deltas));
+        update(data, heading, timeNanos());
+    }
+
+    /**
+     * Updates from a read taken at a known time, for replaying recorded data. Times are in
+     * nanoseconds on the same timeline as the start pose, which is in milliseconds.
+     */
+    public void update(RevBulkData data, double heading, long timeNanos) {
+        deltas[0] = encoderTicksToInches(data.getMotorCurrentPosition(PARALLEL_ENCODER_PORT) - prevWheelPositions[0],
+                PARALLEL_TICKS_PER_INCH);
+        deltas[1] = encoderTicksToInches(data.getMotorCurrentPosition(LATERAL_ENCODER_PORT) - prevWheelPositions[1],
+                LATERAL_TICKS_PER_INCH);
+        deltas[2] = MathUtil.angleWrap(heading - prevHeading);
+        if (LoopLogger.enabled(LoopLogger.Level.TRACE)) {
+            LoopLogger.trace("Odometry", "Deltas %s", Arrays.toString(deltas));
+        }
         prevWheelPositions[0] = data.getMotorCurrentPosition(PARALLEL_ENCODER_PORT);
         prevHeading = heading;
         prevWheelPositions[1] = data.getMotorCurrentPosition(LATERAL_ENCODER_PORT);
-        updateFromRelative(deltas);
+        updateFromRelative(deltas, timeNanos);
     }
 
     public void updateFromRelative(double[] deltas) {
+        updateFromRelative(deltas, timeNanos());
+    }
 
-        RealMatrix m = MatrixUtils.createRealMatrix(new double[][] {deltas});
+    public void updateFromRelative(double[] deltas, long timeNanos) {
+        solve(deltas, poseDelta);
+        robotPoseDelta.set(poseDelta[0], poseDelta[1], poseDelta[2]);
 
-        RealMatrix rawPoseDelta = forwardSolver.solve(m.transpose());
-        Pose robotPoseDelta = new Pose(
-                rawPoseDelta.getEntry(0, 0),
-                rawPoseDelta.getEntry(1, 0),
-                rawPoseDelta.getEntry(2, 0)
-        );
+        // Both are updated in place, so hold on to copies from pose() rather than these
+        relativeRobotMovement.addInPlace(robotPoseDelta);
+        MathUtil.relativeOdometryUpdate(currentPosition, robotPoseDelta, currentPosition);
+        addHistory(relativeRobotMovement.x, relativeRobotMovement.y, relativeRobotMovement.heading, timeNanos);
+    }
+
+    private void addHistory(double x, double y, double heading, long nanos) {
+        prevPositions.add(x, y, heading, nanos);
+        velocityEstimator.update(prevPositions);
+    }
 
-        relativeRobotMovement = relativeRobotMovement.add(robotPoseDelta);
-        currentPosition = MathUtil.relativeOdometryUpdate(currentPosition, robotPoseDelta);
-        prevPositions.add(new TimePose(relativeRobotMovement));
+    /**
+     * Solves for the robot relative pose change that produced some wheel and heading deltas. This
+     * is a forwards and backwards substitution with the precomputed LU factors, doing exactly the
+     * operations LUDecomposition's solver would in the same order, so the results match it to the
+     * bit without allocating anything.
+     */
+    void solve(double[] deltas, double[] poseDelta) {
+        double b0 = deltas[pivot0];
+        double b1 = deltas[pivot1];
+        double b2 = deltas[pivot2];
+
+        // Solve Ly = b, L has ones on its diagonal
+        b1 -= b0 * l10;
+        b2 -= b0 * l20;
+        b2 -= b1 * l21;
+
+        // Solve Ux = y
+        b2 /= u22;
+        b0 -= b2 * u02;
+        b1 -= b2 * u12;
+        b1 /= u11;
+        b0 -= b1 * u01;
+        b0 /= u00;
+
+        poseDelta[0] = b0;
+        poseDelta[1] = b1;
+        poseDelta[2] = b2;
     }
 
     public void virtualUpdate(TimePose t) {
-        this.currentPosition = new Pose(t.x, t.y, t.heading);
-        prevPositions.add(t);
+        currentPosition.set(t.x, t.y, t.heading);
+        addHistory(t.x, t.y, t.heading, t.time * 1000000);
     }
 
     public double x() { return currentPosition.x; }
     public double y() { return currentPosition.y; }
     public double h() { return currentPosition.heading; }
     public Pose pose() {
-        return new Pose(currentPosition.x, currentPosition.y, currentPosition.heading);
+        return pose(new Pose(0, 0, 0));
+    }
+    public Pose pose(Pose out) {
+        return out.set(currentPosition);
     }
 
     public Pose relVelocity() {
-        if (prevPositions.size() < 2) {
-            return new Pose(0, 0, 0);
-        }
-
-        // We'd like to pick a time up to five reads ago, but we might not be able to
-        int oldIndex = Math.max(0, prevPositions.size() - VELOCITY_READ_TICKS - 1);
-        TimePose old = prevPositions.get(oldIndex);
-        TimePose cur = prevPositions.get(prevPositions.size() - 1);
-
-        double scaleFactor = (double) (cur.time - old.time) / (1000);
-        return cur.minus((Pose) old).scale(1 / scaleFactor);
+        return relVelocity(new Pose(0, 0, 0));
+    }
+    public Pose relVelocity(Pose out) {
+        return out.set(velocityEstimator.x(), velocityEstimator.y(), velocityEstimator.heading());
     }
-}
\ No newline at end of file
+}
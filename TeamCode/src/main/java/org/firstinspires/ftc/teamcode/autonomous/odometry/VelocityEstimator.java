@@ -0,0 +1,29 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+/**
+ * Estimates robot velocity from the localizer's pose history. The localizer calls update() each
+ * time it adds a pose, and every estimator does a constant amount of work per update. History
+ * timestamps are in nanoseconds and estimates are in units per second.
+ */
+public interface VelocityEstimator {
+    enum Type {
+        FINITE_DIFFERENCE, LEAST_SQUARES, ALPHA_BETA, KALMAN;
+
+        public VelocityEstimator create() {
+            switch (this) {
+                case LEAST_SQUARES: return new LeastSquaresVelocity();
+                case ALPHA_BETA: return new AlphaBetaVelocity();
+                case KALMAN: return new KalmanVelocity();
+                default: return new FiniteDifferenceVelocity();
+            }
+        }
+    }
+
+    double NANOS_PER_SECOND = 1e9;
+
+    void update(PoseHistory history);
+
+    double x();
+    double y();
+    double heading();
+}
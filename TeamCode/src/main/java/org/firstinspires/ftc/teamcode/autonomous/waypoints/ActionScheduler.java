@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.autonomous.waypoints;
+
+import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Delayed subroutines waiting to run, kept in a binary min-heap on their due time so each loop
+ * only touches the ones that are due. Actions due at the same time run in the order they were
+ * added. Tags are indexed, so checking for or cancelling a tag doesn't scan the queue. Cancelled
+ * actions stay in the heap and are thrown away when they come due.
+ *
+ * Running actions can add more actions or clear the queue. Anything added while actions are
+ * running waits for the next runDue(), even if it's already due, so an action can't keep a loop
+ * from finishing.
+ */
+public class ActionScheduler {
+    private DelayedSubroutine[] heap;
+    private int size;
+    private long nextSeq;
+    private HashMap<String, Tag> tags;
+
+    private boolean running;
+    private ArrayList<DelayedSubroutine> addedWhileRunning;
+
+    private static class Tag {
+        int pending;
+        int generation; // Bumped on cancel, actions from an older generation are dead
+    }
+
+    public ActionScheduler() {
+        heap = new DelayedSubroutine[16];
+        tags = new HashMap<>();
+        addedWhileRunning = new ArrayList<>();
+    }
+
+    public void add(DelayedSubroutine action) {
+        action.seq = nextSeq++;
+        if (action.tag != null) {
+            Tag tag = tags.get(action.tag);
+            if (tag == null) {
+                tag = new Tag();
+                tags.put(action.tag, tag);
+            }
+            tag.pending++;
+            action.generation = tag.generation;
+        }
+
+        if (running) {
+            addedWhileRunning.add(action);
+        } else {
+            push(action);
+        }
+    }
+
+    public boolean hasTag(String tag) {
+        Tag t = tags.get(tag);
+        return t != null && t.pending > 0;
+    }
+
+    // Stops every pending action with this tag from running
+    public void cancel(String tag) {
+        Tag t = tags.get(tag);
+        if (t != null) {
+            t.generation++;
+            t.pending = 0;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        addedWhileRunning.clear();
+        tags.clear();
+    }
+
+    public boolean isEmpty() {
+        return size == 0 && addedWhileRunning.isEmpty();
+    }
+
+    // Includes cancelled actions that haven't come due yet
+    public int size() {
+        return size + addedWhileRunning.size();
+    }
+
+    /**
+     * Runs every action due before timeMillis, earliest first.
+     */
+    public void runDue(SkystoneHardware robot, long timeMillis) {
+        running = true;
+        try {
+            while (size > 0 && heap[0].systemActionTime < timeMillis) {
+                DelayedSubroutine action = pop();
+                if (live(action)) {
+                    action.action.runOnce(robot);
+                }
+            }
+        } finally {
+            running = false;
+            for (int i = 0; i < addedWhileRunning.size(); i++) {
+                push(addedWhileRunning.get(i));
+            }
+            addedWhileRunning.clear();
+        }
+    }
+
+    // Whether a popped action should run, keeping its tag's count up to date
+    private boolean live(DelayedSubroutine action) {
+        if (action.tag == null) {
+            return true;
+        }
+        Tag tag = tags.get(action.tag);
+        if (tag == null || tag.generation != action.generation) {
+            return false;
+        }
+        tag.pending--;
+        return true;
+    }
+
+    private void push(DelayedSubroutine action) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(action, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = action;
+    }
+
+    private DelayedSubroutine pop() {
+        DelayedSubroutine top = heap[0];
+        DelayedSubroutine last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!before(heap[child], last)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+        }
+        return top;
+    }
+
+    private static boolean before(DelayedSubroutine a, DelayedSubroutine b) {
+        return a.systemActionTime < b.systemActionTime ||
+                (a.systemActionTime == b.systemActionTime && a.seq < b.seq);
+    }
+}
@@ -25,7 +25,7 @@ public class ChargeIfNoGrab implements Subroutines.ArrivalInterruptSubroutine {
         }
 
         if (timer == null) {
-            timer = new ElapsedTime();
+            timer = robot.clock.timer();
             robot.setPowers(MecanumUtil.STOP);
         }
 
@@ -22,12 +22,12 @@ public class CloseDepositUntilSuccessful implements Subroutines.RepeatedSubrouti
     @Override
     public boolean runLoop(SkystoneHardware robot, PurePursuitPath path) {
         if (timer == null) {
-            timer = new ElapsedTime();
-            robot.actionCache.add(new DelayedSubroutine(150 + 100, Subroutines.SET_FLIPPER_MAX_EXTEND));
+            timer = robot.clock.timer();
+            robot.actionCache.add(new DelayedSubroutine(150 + 100, Subroutines.SET_FLIPPER_MAX_EXTEND, robot.clock.millis()));
             //robot.actionCache.add(new DelayedSubroutine(425 + 150, (r) -> {r.pidLift.lift.setPower(0.8);}));
-            robot.actionCache.add(new DelayedSubroutine(600 + 150, Subroutines.OPEN_CLAW));
-            robot.actionCache.add(new DelayedSubroutine(950 + 150, Subroutines.SET_FLIPPER_INTAKING));
-            robot.actionCache.add(new DelayedSubroutine(950 + 150, Subroutines.LOWER_LIFT_TO_GRABBING));
+            robot.actionCache.add(new DelayedSubroutine(600 + 150, Subroutines.OPEN_CLAW, robot.clock.millis()));
+            robot.actionCache.add(new DelayedSubroutine(950 + 150, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis()));
+            robot.actionCache.add(new DelayedSubroutine(950 + 150, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
             attempt = 1;
         }
 
@@ -55,10 +55,10 @@ public class CloseDepositUntilSuccessful implements Subroutines.RepeatedSubrouti
         robot.blockFlipper.readyBlockGrab();
         robot.blockGrabber.extend(); // Grab the block
         robot.pidLift.cacheToGrabbing();
-        robot.actionCache.add(new DelayedSubroutine(600, Subroutines.SET_FLIPPER_NORM_EXTEND));
-        robot.actionCache.add(new DelayedSubroutine(1400, Subroutines.OPEN_CLAW));
-        robot.actionCache.add(new DelayedSubroutine(1650, Subroutines.LIFT_A_LITTLE));
-        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.SET_FLIPPER_INTAKING));
-        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.LOWER_LIFT_TO_GRABBING));
+        robot.actionCache.add(new DelayedSubroutine(600, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(1400, Subroutines.OPEN_CLAW, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(1650, Subroutines.LIFT_A_LITTLE, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
     }
 }
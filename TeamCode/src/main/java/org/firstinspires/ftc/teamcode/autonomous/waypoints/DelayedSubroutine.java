@@ -5,13 +5,9 @@ public class DelayedSubroutine {
     public Subroutines.OnceOffSubroutine action;
     public String tag;
 
-    public DelayedSubroutine(long timeFromNow, Subroutines.OnceOffSubroutine action) {
-        this(timeFromNow, action, System.currentTimeMillis(), null);
-    }
-
-    public DelayedSubroutine(long timeFromNow, Subroutines.OnceOffSubroutine action, String tag) {
-        this(timeFromNow, action, System.currentTimeMillis(), tag);
-    }
+    // Set by ActionScheduler when it's added
+    long seq;
+    int generation;
 
     public DelayedSubroutine(long timeFromNow, Subroutines.OnceOffSubroutine action, long currentTime) {
         this(timeFromNow, action, currentTime, null);
@@ -9,9 +9,8 @@ import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
 @Config
 public class DepositUntilSuccessful implements Subroutines.RepeatedSubroutine {
 
-    public static double NO_NEW_CYCLES_DEADLINE = 23; // Seconds
+    public static double NO_NEW_CYCLES_DEADLINE = 23; // Seconds (since the path started)
 
-    static ElapsedTime timeSinceStart = new ElapsedTime();
     ElapsedTime attemptTime;
     int attempt;
 
@@ -19,19 +18,18 @@ public class DepositUntilSuccessful implements Subroutines.RepeatedSubroutine {
     public DepositUntilSuccessful() {
         this.attemptTime = null;
         this.attempt = 0;
-        timeSinceStart.reset();
     }
 
     @Override
     public boolean runLoop(SkystoneHardware robot, PurePursuitPath path) {
         if (attemptTime == null) {
-            attemptTime = new ElapsedTime();
-            robot.actionCache.add(new DelayedSubroutine(425, Subroutines.SET_FLIPPER_NORM_EXTEND));
-            robot.actionCache.add(new DelayedSubroutine(300, (r) -> {r.pidLift.setLayer(2);}));
-            robot.actionCache.add(new DelayedSubroutine(1050, Subroutines.OPEN_CLAW));
+            attemptTime = robot.clock.timer();
+            robot.actionCache.add(new DelayedSubroutine(425, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis()));
+            robot.actionCache.add(new DelayedSubroutine(300, (r) -> {r.pidLift.setLayer(2);}, robot.clock.millis()));
+            robot.actionCache.add(new DelayedSubroutine(1050, Subroutines.OPEN_CLAW, robot.clock.millis()));
             //robot.actionCache.add(new DelayedSubroutine(1050, (r) -> r.pidLift.lift.setPower(1)));
-            robot.actionCache.add(new DelayedSubroutine(1200, Subroutines.SET_FLIPPER_INTAKING));
-            robot.actionCache.add(new DelayedSubroutine(1650, Subroutines.LOWER_LIFT_TO_GRABBING));
+            robot.actionCache.add(new DelayedSubroutine(1200, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis()));
+            robot.actionCache.add(new DelayedSubroutine(1650, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
             attempt = 1;
         }
 
@@ -59,17 +57,17 @@ public class DepositUntilSuccessful implements Subroutines.RepeatedSubroutine {
         robot.blockFlipper.readyBlockGrab();
         robot.blockGrabber.extend(); // Grab the block
         robot.pidLift.cacheToGrabbing();
-        robot.actionCache.add(new DelayedSubroutine(600, Subroutines.SET_FLIPPER_NORM_EXTEND));
-        robot.actionCache.add(new DelayedSubroutine(1400, Subroutines.OPEN_CLAW));
-        robot.actionCache.add(new DelayedSubroutine(1650, Subroutines.LIFT_A_LITTLE));
-        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.SET_FLIPPER_INTAKING));
-        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.LOWER_LIFT_TO_GRABBING));
+        robot.actionCache.add(new DelayedSubroutine(600, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(1400, Subroutines.OPEN_CLAW, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(1650, Subroutines.LIFT_A_LITTLE, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(2150, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
     }
 
     private boolean optionallySkip(SkystoneHardware robot, PurePursuitPath path) {
-        if (timeSinceStart.seconds() > NO_NEW_CYCLES_DEADLINE) {
+        if (path.timeSinceStart.seconds() > NO_NEW_CYCLES_DEADLINE) {
             robot.actionCache.clear();
-            robot.actionCache.add(new DelayedSubroutine(400, Subroutines.LOWER_LIFT_TO_GRABBING));
+            robot.actionCache.add(new DelayedSubroutine(400, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
             path.currPoint = path.waypoints.size() - 2;
             return true;
         }
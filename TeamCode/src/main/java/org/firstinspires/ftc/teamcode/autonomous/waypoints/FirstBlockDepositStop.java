@@ -25,12 +25,12 @@ public class FirstBlockDepositStop implements Subroutines.ArrivalInterruptSubrou
             robot.pidLift.cacheToGrabbing();
             robot.blockGrabber.retract(); // Open claw
             robot.blockFlipper.readyBlockGrab(); // Move flipper
-            robot.actionCache.add(new DelayedSubroutine(500, Subroutines.CLOSE_CLAW, "SKYSTONE1DEPOSITNOCHECK"));
-            robot.actionCache.add(new DelayedSubroutine(1000, Subroutines.SET_FLIPPER_NORM_EXTEND, "SKYSTONE1DEPOSITNOCHECK"));
-            robot.actionCache.add(new DelayedSubroutine(1500, Subroutines.OPEN_CLAW, "SKYSTONE1DEPOSITNOCHECK"));
-            robot.actionCache.add(new DelayedSubroutine(1750, Subroutines.LIFT_A_LITTLE, "SKYSTONE1DEPOSIT"));
-            robot.actionCache.add(new DelayedSubroutine(2250, Subroutines.SET_FLIPPER_INTAKING, "SKYSTONE1DEPOSIT"));
-            robot.actionCache.add(new DelayedSubroutine(2250, Subroutines.LOWER_LIFT_TO_GRABBING, "SKYSTONE1DEPOSITEND"));
+            robot.actionCache.add(new DelayedSubroutine(500, Subroutines.CLOSE_CLAW, robot.clock.millis(), "SKYSTONE1DEPOSITNOCHECK"));
+            robot.actionCache.add(new DelayedSubroutine(1000, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis(), "SKYSTONE1DEPOSITNOCHECK"));
+            robot.actionCache.add(new DelayedSubroutine(1500, Subroutines.OPEN_CLAW, robot.clock.millis(), "SKYSTONE1DEPOSITNOCHECK"));
+            robot.actionCache.add(new DelayedSubroutine(1750, Subroutines.LIFT_A_LITTLE, robot.clock.millis(), "SKYSTONE1DEPOSIT"));
+            robot.actionCache.add(new DelayedSubroutine(2250, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis(), "SKYSTONE1DEPOSIT"));
+            robot.actionCache.add(new DelayedSubroutine(2250, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis(), "SKYSTONE1DEPOSITEND"));
         }
         // If we don't have a deposit end action, we're done!
         if (!robot.hasAction("SKYSTONE1DEPOSITEND")) {
@@ -23,7 +23,7 @@ public class FoundationGrabBackupPath implements Subroutines.ArrivalInterruptSub
     @Override
     public boolean runCycle(SkystoneHardware robot) {
         if (startTime == null) {
-            startTime = new ElapsedTime();
+            startTime = robot.clock.timer();
             robot.setPowers(new MecanumPowers(-0.3, -0.3, -0.3, -0.3));
         } else if (!loweredLatches && startTime.milliseconds() > BACKUP_MS) {
             // Set foundation latches down
@@ -33,10 +33,10 @@ public class FoundationGrabBackupPath implements Subroutines.ArrivalInterruptSub
 
             // Block is already grabbed, so we can flip out
             robot.blockFlipper.normExtend();
-            robot.actionCache.add(new DelayedSubroutine(500, Subroutines.OPEN_CLAW, "SKYSTONE1DEPOSITNOCHECK"));
-            robot.actionCache.add(new DelayedSubroutine(750, Subroutines.LIFT_A_LITTLE, "SKYSTONE1DEPOSIT"));
-            robot.actionCache.add(new DelayedSubroutine(1250, Subroutines.SET_FLIPPER_INTAKING, "SKYSTONE1DEPOSIT"));
-            robot.actionCache.add(new DelayedSubroutine(1250, Subroutines.LOWER_LIFT_TO_GRABBING, "SKYSTONE1DEPOSITEND"));
+            robot.actionCache.add(new DelayedSubroutine(500, Subroutines.OPEN_CLAW, robot.clock.millis(), "SKYSTONE1DEPOSITNOCHECK"));
+            robot.actionCache.add(new DelayedSubroutine(750, Subroutines.LIFT_A_LITTLE, robot.clock.millis(), "SKYSTONE1DEPOSIT"));
+            robot.actionCache.add(new DelayedSubroutine(1250, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis(), "SKYSTONE1DEPOSIT"));
+            robot.actionCache.add(new DelayedSubroutine(1250, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis(), "SKYSTONE1DEPOSITEND"));
             loweredLatches = true;
             startTime.reset();
 
@@ -43,44 +43,38 @@ public class FoundationMovePointTurn implements Subroutines.ArrivalInterruptSubr
                 // We can't call this earlier or we'll slide and lose the block
                 Subroutines.SMART_DROP_BLOCK.runOnce(robot);
                 robot.setPowers(MecanumUtil.STOP);
-                checkAtTime = ms() + TIME_UNTIL_FIRST_CHECK_MS;
+                checkAtTime = ms(robot) + TIME_UNTIL_FIRST_CHECK_MS;
             }
             return false;
         }
 
-        if (mode == Mode.CHECKING && ms() > checkAtTime) {
+        if (mode == Mode.CHECKING && ms(robot) > checkAtTime) {
             if (robot.hasBlockInTray()) {
                 // We didn't grab the block successfully
-                checkAtTime = ms() + TIME_UNTIL_SUBSEQUENT_CHECKS_MS;
+                checkAtTime = ms(robot) + TIME_UNTIL_SUBSEQUENT_CHECKS_MS;
                 robot.actionCache.clear(); // Remove everything from action cache
 
                 // Grab the block
                 robot.pidLift.setLayer(0);
                 robot.blockGrabber.retract(); // Open claw
                 robot.blockFlipper.readyBlockGrab(); // Move flipper
-                robot.actionCache.add(new DelayedSubroutine(500, Subroutines.CLOSE_CLAW)); // Close claw
-                // TODO fix how we can't edit delayed subroutines within a delayed subroutine
-                // which would let us just call SMART_DROP_BLOCK here
-                robot.actionCache.add(new DelayedSubroutine(1000, Subroutines.SET_FLIPPER_NORM_EXTEND));
-                robot.actionCache.add(new DelayedSubroutine(1000, Subroutines.OPEN_CLAW));
-                robot.actionCache.add(new DelayedSubroutine(1250, Subroutines.LIFT_A_LITTLE));
-                robot.actionCache.add(new DelayedSubroutine(1750, Subroutines.SET_FLIPPER_INTAKING));
-                robot.actionCache.add(new DelayedSubroutine(1750, Subroutines.LOWER_LIFT_TO_GRABBING));
+                robot.actionCache.add(new DelayedSubroutine(500, Subroutines.CLOSE_CLAW, robot.clock.millis())); // Close claw
+                robot.actionCache.add(new DelayedSubroutine(1000, Subroutines.SMART_DROP_BLOCK, robot.clock.millis()));
             } else {
                 mode = Mode.WAITING;
-                checkAtTime = ms() + TIME_UNTIL_DRIVE_AWAY;
+                checkAtTime = ms(robot) + TIME_UNTIL_DRIVE_AWAY;
                 Subroutines.SET_FOUNDATION_LATCHES_UP.runOnce(robot);
             }
         }
 
-        if (mode == Mode.WAITING && ms() > checkAtTime) {
+        if (mode == Mode.WAITING && ms(robot) > checkAtTime) {
             return true;
         }
 
         return false;
     }
 
-    private long ms() {
-        return System.currentTimeMillis();
+    private long ms(SkystoneHardware robot) {
+        return robot.clock.millis();
     }
 }
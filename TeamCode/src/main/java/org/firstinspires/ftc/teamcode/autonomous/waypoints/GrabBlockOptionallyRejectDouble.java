@@ -42,7 +42,7 @@ public class GrabBlockOptionallyRejectDouble implements Subroutines.ArrivalInter
 
         if (noBlockIterations > ITERATIONS_BEFORE_CONTINUE) {
             robot.setIntakePower(1);
-            robot.actionCache.add(new DelayedSubroutine(500, Subroutines.STOP_INTAKE));
+            robot.actionCache.add(new DelayedSubroutine(500, Subroutines.STOP_INTAKE, robot.clock.millis()));
             return true;
         } else {
             return false;
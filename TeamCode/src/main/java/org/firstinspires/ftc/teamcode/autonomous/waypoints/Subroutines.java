@@ -37,14 +37,14 @@ public class Subroutines {
     public static final OnceOffSubroutine REVERSE_INTAKE = (robot) -> { robot.setIntakePower(-1); };
     public static final OnceOffSubroutine JOLT_INTAKE = (robot) -> {
         robot.setIntakePower(1);
-        robot.actionCache.add(new DelayedSubroutine(300, STOP_INTAKE));
+        robot.actionCache.add(new DelayedSubroutine(300, STOP_INTAKE, robot.clock.millis()));
     };
 
 
     public static final OnceOffSubroutine OPEN_CLAW = (robot) -> { robot.blockGrabber.retract(); };
     public static final OnceOffSubroutine CLOSE_CLAW = (robot) -> { robot.blockGrabber.extend(); };
     public static final OnceOffSubroutine CAPSTONE_CLAW = (robot) -> {
-        robot.blockGrabber.servo.setPosition(SkystoneHardware.BLOCK_GRABBER_CAPSTONE);
+        robot.blockGrabber.setPosition(SkystoneHardware.BLOCK_GRABBER_CAPSTONE);
     };
 
     public static final OnceOffSubroutine SET_FLIPPER_GRABBING = (robot) -> { robot.blockFlipper.readyBlockGrab(); };
@@ -64,8 +64,8 @@ public class Subroutines {
     };
 
     public static final OnceOffSubroutine SET_FOUNDATION_LATCHES_OUT = (robot) -> {
-        robot.leftFoundationLatch.servo.setPosition(SkystoneHardware.FOUNDATION_LATCH_OUT);
-        robot.rightFoundationLatch.servo.setPosition(SkystoneHardware.FOUNDATION_LATCH_OUT);
+        robot.leftFoundationLatch.setPosition(SkystoneHardware.FOUNDATION_LATCH_OUT);
+        robot.rightFoundationLatch.setPosition(SkystoneHardware.FOUNDATION_LATCH_OUT);
     };
 
     public static final OnceOffSubroutine SET_FANGS_DOWN = (robot) -> {
@@ -140,21 +140,21 @@ public class Subroutines {
     public static final OnceOffSubroutine GRAB_INTAKED_BLOCK = (robot) -> {
         robot.blockFlipper.readyBlockGrab();
         robot.blockGrabber.extend(); // Grab the block
-        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.SET_FLIPPER_DRIVING));
+        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.SET_FLIPPER_DRIVING, robot.clock.millis()));
     };
 
     public static final OnceOffSubroutine GRAB_INTAKED_BLOCK_AND_LIFT = (robot) -> {
         robot.blockFlipper.readyBlockGrab();
         robot.blockGrabber.extend(); // Grab the block
-        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.SET_FLIPPER_NORM_EXTEND));
-        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.LIFT_LEVEL_ONE));
+        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.LIFT_LEVEL_ONE, robot.clock.millis()));
     };
 
     public static final OnceOffSubroutine GRAB_INTAKED_BLOCK_AND_LIFT_LEVEL_2 = (robot) -> {
         robot.blockFlipper.readyBlockGrab();
         robot.blockGrabber.extend(); // Grab the block
-        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.SET_FLIPPER_NORM_EXTEND));
-        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.LIFT_LEVEL_TWO));
+        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(850, Subroutines.LIFT_LEVEL_TWO, robot.clock.millis()));
     };
 
 
@@ -166,9 +166,9 @@ public class Subroutines {
     public static final OnceOffSubroutine SMART_DROP_BLOCK = (robot) -> {
         robot.blockFlipper.normExtend();
         robot.blockGrabber.retract();
-        robot.actionCache.add(new DelayedSubroutine(250, Subroutines.LIFT_A_LITTLE));
-        robot.actionCache.add(new DelayedSubroutine(750, Subroutines.SET_FLIPPER_INTAKING));
-        robot.actionCache.add(new DelayedSubroutine(750, Subroutines.LOWER_LIFT_TO_GRABBING));
+        robot.actionCache.add(new DelayedSubroutine(250, Subroutines.LIFT_A_LITTLE, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(750, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis()));
+        robot.actionCache.add(new DelayedSubroutine(750, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
     };
 
     public static final OnceOffSubroutine GRAB_INTAKED_BLOCK_WITH_LATCHES = (robot) -> {
@@ -18,7 +18,7 @@ public class WaitSubroutine implements Subroutines.ArrivalInterruptSubroutine {
     @Override
     public boolean runCycle(SkystoneHardware robot) {
         if (timer == null) {
-            timer = new ElapsedTime();
+            timer = robot.clock.timer();
         }
 
         return timer.milliseconds() > waitMS;
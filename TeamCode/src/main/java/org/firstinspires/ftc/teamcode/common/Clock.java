@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+/**
+ * Where everything that times itself gets the time from. The robot runs on the system clock, and
+ * the simulator gives each virtual robot its own clock that only moves when it says so, so it can
+ * run faster than real time and several robots can run side by side without seeing each other.
+ *
+ * Times are in nanoseconds and only differences between them mean anything. Millisecond times (for
+ * TimePose and delayed subroutines) are on the same timeline.
+ */
+public interface Clock {
+    Clock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+
+    default long millis() {
+        return nanoTime() / 1000000;
+    }
+
+    // A timer that starts now and runs on this clock
+    default ElapsedTime timer() {
+        return new ElapsedTime() {
+            @Override
+            protected long nsNow() {
+                return nanoTime();
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.hardware.bosch.BNO055IMU;
+
+/**
+ * Reads the BNO055 heading on its own thread, so the control loop never waits on the I2C
+ * transaction. Samples are handed over with a sequence lock: the sampler bumps the sequence number
+ * to odd while it writes and back to even when it's done, and the loop thread just retries if it
+ * catches a write in progress. The loop side never blocks or allocates.
+ *
+ * The sampler shuts itself down once nobody has polled it for a while, which is what happens when
+ * an op mode ends. Calling start() again brings it back. If reading the IMU throws, the sampler
+ * dies and won't start again until RESTART_BACKOFF_MS has passed or it's been stopped, so a hub
+ * that keeps failing doesn't cost us a new thread every loop.
+ */
+@Config
+public class HeadingSampler implements Runnable {
+    // The BNO055 only fuses new orientation data at 100 Hz, reading faster just hogs the hub
+    public static double SAMPLE_PERIOD_MS = 10;
+    public static double IDLE_TIMEOUT_MS = 500;
+    public static double RESTART_BACKOFF_MS = 1000;
+    public static double STOP_WAIT_MS = 20; // About two reads, after that we stop waiting for it
+
+    private BNO055IMU imu;
+    private volatile Thread thread;
+    private Thread stopping; // A stopped thread that may still be in the middle of a read
+
+    private volatile boolean failed;
+    private volatile long failedNanos;
+
+    /* Written by the sampler thread */
+    private volatile long sequence;
+    private volatile double heading;
+    private volatile long timestamp;
+    private volatile long readNanos;
+
+    /* Written by the loop thread */
+    private volatile long lastPoll;
+
+    /* Latest sample, only touched by the loop thread */
+    public double sampleHeading;
+    public long sampleNanos; // System.nanoTime() when the read finished
+    public long sampleReadNanos; // How long the I2C read took
+
+    public HeadingSampler(BNO055IMU imu) {
+        this.imu = imu;
+    }
+
+    public synchronized void start() {
+        if (running()) {
+            return;
+        }
+        // Never have two samplers talking to the IMU at once
+        if (stopping != null && stopping.isAlive()) {
+            return;
+        }
+        stopping = null;
+        if (failed && System.nanoTime() - failedNanos < RESTART_BACKOFF_MS * 1000000) {
+            return;
+        }
+        failed = false;
+        lastPoll = System.nanoTime();
+        thread = new Thread(this, "HeadingSampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        failed = false;
+        Thread t = thread;
+        if (t == null) {
+            return;
+        }
+        t.interrupt();
+        thread = null;
+        try {
+            // join(0) would wait forever
+            t.join(Math.max(1, (long) STOP_WAIT_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            stopping = t; // Stuck in a read, start() waits for it to finish
+        }
+    }
+
+    public boolean running() {
+        Thread t = thread;
+        return t != null && t.isAlive();
+    }
+
+    // Whether the sampler died reading the IMU and hasn't been stopped since
+    public boolean failed() {
+        return failed;
+    }
+
+    /**
+     * Copies the newest sample into sampleHeading, sampleNanos and sampleReadNanos. Only call this
+     * from one thread.
+     *
+     * @return false if there hasn't been a sample yet
+     */
+    public boolean poll() {
+        long seq;
+        double h;
+        long t;
+        long r;
+        do {
+            seq = sequence;
+            h = heading;
+            t = timestamp;
+            r = readNanos;
+        } while ((seq & 1) != 0 || seq != sequence);
+
+        lastPoll = System.nanoTime();
+        if (seq == 0) {
+            return false;
+        }
+        sampleHeading = h;
+        sampleNanos = t;
+        sampleReadNanos = r;
+        return true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted() &&
+                    System.nanoTime() - lastPoll < IDLE_TIMEOUT_MS * 1000000) {
+                long start = System.nanoTime();
+                double h = imu.getAngularOrientation().firstAngle;
+                long end = System.nanoTime();
+                publish(h, end, end - start);
+
+                long sleepMillis = (long) SAMPLE_PERIOD_MS - (System.nanoTime() - start) / 1000000;
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // The hub went away, the loop will notice the samples going stale and read for itself
+            failedNanos = System.nanoTime();
+            failed = true;
+        }
+    }
+
+    private void publish(double h, long t, long r) {
+        long seq = sequence;
+        sequence = seq + 1;
+        heading = h;
+        timestamp = t;
+        readNanos = r;
+        sequence = seq + 2;
+    }
+}
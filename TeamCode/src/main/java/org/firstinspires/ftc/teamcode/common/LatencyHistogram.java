@@ -0,0 +1,88 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import java.util.Arrays;
+
+/**
+ * Counts durations in nanoseconds into a fixed set of log-linear buckets, the way HdrHistogram
+ * does. Every power of two is split into 16 equal buckets, so any value we report is within about
+ * 6% of the real one, and recording is a couple of shifts and an increment that never allocates.
+ * Anything over about 35 minutes lands in the last bucket.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long max;
+
+    public LatencyHistogram() {
+        counts = new long[BUCKETS];
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0; // Shouldn't happen with nanoTime, but don't index off the front
+        }
+        counts[bucket(nanos)]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * The smallest value at least the given fraction of recordings are less than or equal to, as
+     * the top of its bucket. Never more than the largest value actually recorded.
+     */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        // The four bits below the top one pick the sub-bucket
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestInBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
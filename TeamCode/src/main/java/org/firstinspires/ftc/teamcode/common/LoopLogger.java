@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Leveled logger for code that runs every loop. Writing to stdout or logcat blocks for long enough
+ * to matter, so enabled records are formatted on the caller's thread and handed to a background
+ * writer through a ring buffer that's allocated once. Building the line still allocates, but
+ * queueing it doesn't, and never takes a lock. When the queue is full, records are dropped and
+ * counted rather than making the loop wait.
+ *
+ * Disabled levels cost a single comparison, but only if the arguments are free to build. Anything
+ * that would format or box should be wrapped in {@link #enabled(Level)}.
+ */
+@Config
+public class LoopLogger {
+    public enum Level {TRACE, DEBUG, INFO, WARN, ERROR, OFF}
+
+    public interface Sink {
+        void write(String line);
+    }
+
+    // Where records go unless something else is set, tagged like the rest of the robot's logcat
+    public static final Sink ROBOT_LOG = line -> RobotLog.ii("LoopLogger", line);
+
+    public static Level LEVEL = Level.INFO;
+    public static int QUEUE_CAPACITY = 1024; // Can be turned down, but never past RING_SIZE
+    private static final int RING_SIZE = 1024;
+    public static double WRITER_IDLE_MS = 5; // How long the writer sleeps when there's nothing to do
+
+    // Records are claimed at tail and written from head. A claimed slot stays null until its
+    // record is filled in, and the writer waits for it rather than skipping ahead.
+    private static final AtomicReferenceArray<String> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private static final AtomicLong head = new AtomicLong();
+    private static final AtomicLong tail = new AtomicLong();
+    private static final AtomicInteger dropped = new AtomicInteger();
+    private static volatile Sink sink = ROBOT_LOG;
+    private static volatile Thread writer;
+
+    public static boolean enabled(Level level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    public static void trace(String tag, String format, Object... args) { log(Level.TRACE, tag, format, args); }
+    public static void debug(String tag, String format, Object... args) { log(Level.DEBUG, tag, format, args); }
+    public static void info(String tag, String format, Object... args) { log(Level.INFO, tag, format, args); }
+    public static void warn(String tag, String format, Object... args) { log(Level.WARN, tag, format, args); }
+    public static void error(String tag, String format, Object... args) { log(Level.ERROR, tag, format, args); }
+
+    public static void log(Level level, String tag, String format, Object... args) {
+        if (!enabled(level)) {
+            return;
+        }
+        // Built before a slot is claimed, since the writer waits on a claimed slot until it's filled
+        String line = level.name().charAt(0) + "/" + tag + ": " + format(format, args);
+
+        int capacity = Math.min(QUEUE_CAPACITY, RING_SIZE);
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head.get() >= capacity) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+
+        ring.lazySet((int) (slot % RING_SIZE), line);
+        ensureWriter();
+    }
+
+    // A bad format string or argument shouldn't take the loop down, so log what we can instead
+    private static String format(String format, Object... args) {
+        if (args.length == 0) {
+            return format;
+        }
+        try {
+            return String.format(format, args);
+        } catch (RuntimeException e) {
+            return format + " (couldn't format: " + e + ")";
+        }
+    }
+
+    // How many records have been thrown away because the queue was full
+    public static int dropped() {
+        return dropped.get();
+    }
+
+    public static void setSink(Sink sink) {
+        LoopLogger.sink = sink;
+    }
+
+    /**
+     * Blocks until everything queued so far has been written, or the timeout passes.
+     *
+     * @return whether the queue emptied in time
+     */
+    public static boolean flush(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (head.get() < tail.get()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(100000);
+        }
+        return true;
+    }
+
+    private static void ensureWriter() {
+        if (writer != null) {
+            return;
+        }
+        synchronized (LoopLogger.class) {
+            if (writer == null) {
+                Thread t = new Thread(LoopLogger::drain, "LoopLogger");
+                t.setDaemon(true);
+                t.start();
+                writer = t;
+            }
+        }
+    }
+
+    private static void drain() {
+        while (true) {
+            long slot = head.get();
+            int index = (int) (slot % RING_SIZE);
+            String line = ring.get(index);
+            if (line == null) {
+                LockSupport.parkNanos((long) (WRITER_IDLE_MS * 1000000));
+                continue;
+            }
+            ring.set(index, null);
+            try {
+                sink.write(line);
+            } catch (RuntimeException e) {
+                // A broken sink shouldn't take the writer down with it
+            }
+            // Only now can a logger reuse the slot, and flush() see it written
+            head.set(slot + 1);
+        }
+    }
+}
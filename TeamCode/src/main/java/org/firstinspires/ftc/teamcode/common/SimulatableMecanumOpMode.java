@@ -20,11 +20,26 @@ public abstract class SimulatableMecanumOpMode extends OpMode {
     private OpenCvCamera camera;
     private ImprovedSkystoneDetector detector;
 
+    // Stands in for the robot and the phone when we're running in the simulator, null otherwise
+    public Simulator simulator;
+
+    public interface Simulator {
+        SkystoneHardware getRobot(Pose start);
+        SkystoneState getSkystoneState();
+        void stop(); // There's no SDK to end the op mode, so the simulator has to be told
+    }
+
     public SkystoneHardware getRobot(Pose start) {
+        if (simulator != null) {
+            return simulator.getRobot(start);
+        }
         return new SkystoneHardware(this.hardwareMap, this.telemetry, FtcDashboard.getInstance(), start);
     }
 
     public void startPhoneCamDetector(Alliance alliance) {
+        if (simulator != null) {
+            return;
+        }
         int cameraMonitorViewId = hardwareMap.appContext.getResources()
                 .getIdentifier("cameraMonitorViewId", "id", hardwareMap.appContext.getPackageName());
         this.camera = new OpenCvInternalCamera(OpenCvInternalCamera.CameraDirection.BACK, cameraMonitorViewId);
@@ -36,15 +51,31 @@ public abstract class SimulatableMecanumOpMode extends OpMode {
     }
 
     public SkystoneState getSkystoneState() {
+        if (simulator != null) {
+            return simulator.getSkystoneState();
+        }
         return detector.getSkystoneState();
     }
 
     public void stopPhoneCamDetector() {
+        if (simulator != null) {
+            return;
+        }
         camera.stopStreaming();
     }
 
     public void stop() {
-        requestOpModeStop();
+        if (simulator == null) {
+            requestOpModeStop();
+        }
+        notifySimulatorDone();
+    }
+
+    // On the robot the SDK decides when we're done, but the simulator needs to hear about it
+    protected void notifySimulatorDone() {
+        if (simulator != null) {
+            simulator.stop();
+        }
     }
 
     public SkystoneHardware getRobot() {
@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.common;
+
+/**
+ * A fixed-capacity character buffer that can be rewritten every loop without allocating. Telemetry
+ * items hold a reference to the buffer itself, so the only String ever built from it is the one
+ * the SDK asks for with toString() when it actually transmits.
+ */
+public class TextBuffer implements CharSequence {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    private final char[] chars;
+    private int length;
+
+    public TextBuffer(int capacity) {
+        this.chars = new char[capacity];
+        this.length = 0;
+    }
+
+    public TextBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextBuffer append(char c) {
+        // Anything past capacity is silently dropped, we'd rather truncate than throw mid-loop
+        if (length < chars.length) {
+            chars[length++] = c;
+        }
+        return this;
+    }
+
+    public TextBuffer append(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            append(s.charAt(i));
+        }
+        return this;
+    }
+
+    public TextBuffer append(long value) {
+        // Work with negative numbers so Long.MIN_VALUE doesn't overflow
+        if (value < 0) {
+            append('-');
+        } else {
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            digits++;
+        }
+
+        // Fill in from the least significant digit, dropping any that don't fit
+        int end = length + digits;
+        for (int i = end - 1; i >= length; i--) {
+            if (i < chars.length) {
+                chars[i] = (char) ('0' - (value % 10));
+            }
+            value /= 10;
+        }
+        length = Math.min(end, chars.length);
+        return this;
+    }
+
+    /**
+     * Appends value rounded half up to a fixed number of decimal places, the same output as
+     * String.format("%.Nf") gives for anything we'd reasonably display.
+     */
+    public TextBuffer append(double value, int places) {
+        if (Double.isNaN(value)) {
+            return append("NaN");
+        } else if (Double.isInfinite(value)) {
+            return append(value > 0 ? "Infinity" : "-Infinity");
+        }
+
+        long scale = POWERS_OF_TEN[places];
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            append('-');
+            value = -value;
+        }
+        long scaled = Math.round(value * scale); // Saturates at Long.MAX_VALUE for huge values
+
+        append(scaled / scale);
+        if (places > 0) {
+            append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                append((char) ('0' + (fraction / digit) % 10));
+            }
+        }
+        return this;
+    }
+
+    public TextBuffer set(double value, int places) {
+        return clear().append(value, places);
+    }
+
+    public TextBuffer set(long value) {
+        return clear().append(value);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
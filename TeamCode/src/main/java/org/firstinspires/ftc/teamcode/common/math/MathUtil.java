@@ -3,8 +3,6 @@ package org.firstinspires.ftc.teamcode.common.math;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -44,6 +42,14 @@ public class MathUtil {
     }
 
     public static Pose relativeOdometryUpdate(Pose fieldPose, Pose robotPoseDelta) {
+        return relativeOdometryUpdate(fieldPose, robotPoseDelta, new Pose(0, 0, 0));
+    }
+
+    /**
+     * Writes the updated pose into out instead of allocating one. out can be fieldPose, which
+     * updates it in place.
+     */
+    public static Pose relativeOdometryUpdate(Pose fieldPose, Pose robotPoseDelta, Pose out) {
         double dtheta = robotPoseDelta.heading;
         double sineTerm, cosTerm;
 
@@ -55,14 +61,16 @@ public class MathUtil {
             cosTerm = (1 - Math.cos(dtheta)) / dtheta;
         }
 
-        Point fieldPositionDelta = new Point(
-                sineTerm * robotPoseDelta.x - cosTerm * robotPoseDelta.y,
-                cosTerm * robotPoseDelta.x + sineTerm * robotPoseDelta.y
-        );
+        double relX = sineTerm * robotPoseDelta.x - cosTerm * robotPoseDelta.y;
+        double relY = cosTerm * robotPoseDelta.x + sineTerm * robotPoseDelta.y;
 
-        Pose fieldPoseDelta = new Pose(fieldPositionDelta.rotated(fieldPose.heading), robotPoseDelta.heading);
+        // Same as rotating the relative delta by our heading
+        double cos = Math.cos(fieldPose.heading);
+        double sin = Math.sin(fieldPose.heading);
+        double fieldX = relX * cos - relY * sin;
+        double fieldY = relX * sin + relY * cos;
 
-        return fieldPose.add(fieldPoseDelta);
+        return out.set(fieldPose.x + fieldX, fieldPose.y + fieldY, fieldPose.heading + robotPoseDelta.heading);
     }
 
     public static boolean approxEquals(double d1, double d2) {
@@ -74,46 +82,85 @@ public class MathUtil {
         }
     }
 
+    // What lineSegmentCircleIntersection found
+    public static final int NO_INTERSECTION = 0;
+    public static final int TANGENT = 1;
+    public static final int TWO_INTERSECTIONS = 2;
+
     public static Point lineSegmentCircleIntersection(Point ul1, Point ul2, Point o, double radius) {
-        Point l1 = new Point(ul1.x - o.x, ul1.y - o.y);
-        Point l2 = new Point(ul2.x - o.x, ul2.y - o.y);
+        Point intersection = new Point(0, 0);
+        if (lineSegmentCircleIntersection(ul1, ul2, o, radius, intersection) == NO_INTERSECTION) {
+            return null;
+        }
+        return intersection;
+    }
 
-        double d_x = l2.x - l1.x;
-        double d_y = l2.y - l1.y;
+    /**
+     * Intersects the line through ul1 and ul2 with a circle, and writes the intersection closest
+     * to ul2 into out. If both are equally close, it's the one with the positive offset. out is
+     * left alone if there's no intersection, and can be any of the other points.
+     */
+    public static int lineSegmentCircleIntersection(Point ul1, Point ul2, Point o, double radius, Point out) {
+        double l1x = ul1.x - o.x;
+        double l1y = ul1.y - o.y;
+        double l2x = ul2.x - o.x;
+        double l2y = ul2.y - o.y;
+
+        double d_x = l2x - l1x;
+        double d_y = l2y - l1y;
         double d_r = Math.hypot(d_x, d_y);
-        double determinant = l1.x * l2.y - l2.x * l1.y;
-        double discriminant = Math.pow(radius, 2) * Math.pow(d_r, 2) - Math.pow(determinant, 2);
+        double d_r2 = d_r * d_r;
+        double determinant = l1x * l2y - l2x * l1y;
+        double discriminant = radius * radius * d_r2 - determinant * determinant;
 
-        List<Point> offsets = new LinkedList<>();
         if (MathUtil.approxEquals(discriminant, 0)) {
-            offsets.add(new Point(0, 0));
-        } else if (discriminant > 0) {
-            double x_determinant = sgn(d_y) * d_x * Math.sqrt(discriminant);
-            double y_determinant = Math.abs(d_y) * Math.sqrt(discriminant);
-            offsets.add(new Point(x_determinant, y_determinant));
-            offsets.add(new Point(-x_determinant, -y_determinant));
+            out.set(determinant * d_y / d_r2 + o.x, -determinant * d_x / d_r2 + o.y);
+            return TANGENT;
+        } else if (!(discriminant > 0)) {
+            return NO_INTERSECTION;
         }
 
-        List<Point> intersections = new LinkedList<>();
-        for (Point offset : offsets) {
-            intersections.add(new Point (
-                (determinant * d_y + offset.x) / Math.pow(d_r, 2) + o.x,
-                (-determinant * d_x + offset.y) / Math.pow(d_r, 2) + o.y
-            ));
-        }
+        double x_determinant = sgn(d_y) * d_x * Math.sqrt(discriminant);
+        double y_determinant = Math.abs(d_y) * Math.sqrt(discriminant);
+        double x1 = (determinant * d_y + x_determinant) / d_r2 + o.x;
+        double y1 = (-determinant * d_x + y_determinant) / d_r2 + o.y;
+        double x2 = (determinant * d_y - x_determinant) / d_r2 + o.x;
+        double y2 = (-determinant * d_x - y_determinant) / d_r2 + o.y;
 
-        // Sort points by closeness to ul2 so closest point is at position 0
-        if (intersections.size() == 2 &&
-                (intersections.get(0).distance(ul2) > intersections.get(1).distance(ul2))) {
-            // If it's unsorted, reverse the order
-            intersections.add(intersections.remove(0));
+        // Same comparison as Point.distance, so ties go the same way they always have
+        if (distance(x1, y1, ul2) > distance(x2, y2, ul2)) {
+            out.set(x2, y2);
+        } else {
+            out.set(x1, y1);
         }
+        return TWO_INTERSECTIONS;
+    }
 
-        if (intersections.size() > 0) {
-            return intersections.get(0);
-        } else {
-            return null;
+    private static double distance(double x, double y, Point p) {
+        double dx = x - p.x;
+        double dy = y - p.y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Projects p onto the line through a and b. Returns how far along it the nearest point is, as
+     * a fraction of the way from a to b, so anything outside 0..1 is off the ends of the segment.
+     * A segment with no length projects everything onto a.
+     */
+    public static double projectOntoSegment(Point a, Point b, Point p) {
+        double d_x = b.x - a.x;
+        double d_y = b.y - a.y;
+        double lengthSquared = d_x * d_x + d_y * d_y;
+        if (lengthSquared == 0) {
+            return 0;
         }
+        return ((p.x - a.x) * d_x + (p.y - a.y) * d_y) / lengthSquared;
+    }
+
+    // The point on the line through a and b closest to p, written into out
+    public static Point nearestLinePoint(Point a, Point b, Point p, Point out) {
+        double t = projectOntoSegment(a, b, p);
+        return out.set(a.x + (b.x - a.x) * t, a.y + (b.y - a.y) * t);
     }
 
     private static int sgn(double n) {
@@ -10,18 +10,39 @@ public class Point implements Comparable, Cloneable {
     }
 
     public Point rotated(double angle) {
-        double newX = x * Math.cos(angle) - y * Math.sin(angle);
-        double newY = x * Math.sin(angle) + y * Math.cos(angle);
-        return new Point(newX, newY);
+        return rotated(angle, new Point(0, 0));
     }
 
     public Point add(Point p) {
-        return new Point(this.x + p.x, this.y + p.y);
+        return add(p, new Point(0, 0));
     }
     public Point minus(Point p) {
-        return new Point(this.x - p.x, this.y - p.y);
+        return minus(p, new Point(0, 0));
     }
 
+    // Versions that write into an existing point instead of allocating one. out can be this or
+    // the argument, so p.add(q, p) adds in place.
+    public Point rotated(double angle, Point out) {
+        double newX = x * Math.cos(angle) - y * Math.sin(angle);
+        double newY = x * Math.sin(angle) + y * Math.cos(angle);
+        return out.set(newX, newY);
+    }
+    public Point add(Point p, Point out) {
+        return out.set(this.x + p.x, this.y + p.y);
+    }
+    public Point minus(Point p, Point out) {
+        return out.set(this.x - p.x, this.y - p.y);
+    }
+
+    public Point set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+    public Point rotateInPlace(double angle) { return rotated(angle, this); }
+    public Point addInPlace(Point p) { return add(p, this); }
+    public Point minusInPlace(Point p) { return minus(p, this); }
+
     public double atan() {
         return Math.atan2(y, x);
     }
@@ -29,7 +50,11 @@ public class Point implements Comparable, Cloneable {
     public double radius() {
         return Math.sqrt(x * x + y * y);
     }
-    public double distance(Point p) {return minus(p).radius(); }
+    public double distance(Point p) {
+        double dx = x - p.x;
+        double dy = y - p.y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -12,19 +12,41 @@ public class Pose extends Point implements Cloneable {
         this(p.x, p.y, heading);
     }
 
-    public Pose add(Pose p2) {
-        return new Pose(x + p2.x, y + p2.y, heading + p2.heading);
+    public Pose add(Pose p2) { return add(p2, new Pose(0, 0, 0)); }
+    public Pose multiply(Pose p2) { return multiply(p2, new Pose(0, 0, 0)); }
+    public Pose divideBy(Pose p2) { return divideBy(p2, new Pose(0, 0, 0)); }
+    public Pose minus(Pose p2) { return minus(p2, new Pose(0, 0, 0)); }
+    public Pose scale(double d) { return scale(d, new Pose(0, 0, 0)); }
+
+    // Allocation free versions for code that runs every loop. out can be this or the argument.
+    public Pose add(Pose p2, Pose out) {
+        return out.set(x + p2.x, y + p2.y, heading + p2.heading);
+    }
+    public Pose multiply(Pose p2, Pose out) {
+        return out.set(x * p2.x, y * p2.y, heading * p2.heading);
+    }
+    public Pose divideBy(Pose p2, Pose out) {
+        return out.set(x / p2.x, y / p2.y, heading / p2.heading);
     }
-    public Pose multiply(Pose p2) {
-        return new Pose(x * p2.x, y * p2.y, heading * p2.heading);
+    public Pose minus(Pose p2, Pose out) {
+        return out.set(x - p2.x, y - p2.y, heading - p2.heading);
     }
-    public Pose divideBy(Pose p2) {
-        return new Pose(x / p2.x, y / p2.y, heading / p2.heading);
+    public Pose scale(double d, Pose out) {
+        return out.set(x * d, y * d, heading * d);
     }
-    public Pose minus(Pose p2) {
-        return new Pose(x - p2.x, y - p2.y, heading - p2.heading);
+
+    public Pose set(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        return this;
     }
-    public Pose scale(double d) {return new Pose(x * d, y * d, heading * d);}
+    public Pose set(Pose p) { return set(p.x, p.y, p.heading); }
+    public Pose addInPlace(Pose p2) { return add(p2, this); }
+    public Pose multiplyInPlace(Pose p2) { return multiply(p2, this); }
+    public Pose divideByInPlace(Pose p2) { return divideBy(p2, this); }
+    public Pose minusInPlace(Pose p2) { return minus(p2, this); }
+    public Pose scaleInPlace(double d) { return scale(d, this); }
     public void clampAbs(Pose p2) {
         x = Math.copySign(minAbs(x, p2.x), x);
         y = Math.copySign(minAbs(y, p2.y), y);
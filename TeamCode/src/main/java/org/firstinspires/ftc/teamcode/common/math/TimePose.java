@@ -1,11 +1,13 @@
 package org.firstinspires.ftc.teamcode.common.math;
 
+import org.firstinspires.ftc.teamcode.common.Clock;
+
 public class TimePose extends Pose {
     public long time;
 
     public TimePose(Pose p) {
         super(p.x, p.y, p.heading);
-        this.time = System.currentTimeMillis();
+        this.time = Clock.SYSTEM.millis();
     }
 
     public TimePose(Pose p, long time) {
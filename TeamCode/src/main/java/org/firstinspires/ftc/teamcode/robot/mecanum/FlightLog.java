@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads back logs written by {@link FlightRecorder}. The reader is a cursor: next() moves on to the
+ * next record and copies it into the public fields, overwriting whatever was there from the last
+ * record of the same type.
+ *
+ * Everything is little endian. The file starts with the magic number, a version and two reserved
+ * bytes, followed by records that each start with a type byte and a timestamp in nanoseconds on
+ * the localizer's timeline, so a replay can hand them straight to the localizer.
+ * <pre>
+ * START   double pose x/y/heading, the localizer's starting pose
+ * LOOP    int encoders[4], short analog[4] (mV), byte digitals (bit n is port n),
+ *         double heading, double intake left/right (mA), double pose x/y/heading
+ * POWERS  double frontLeft, frontRight, backLeft, backRight
+ * </pre>
+ * A type of zero ends the log.
+ */
+public class FlightLog {
+    public static final int MAGIC = 0x32303838; // "8802" when read as little endian bytes
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+
+    public static final byte END = 0;
+    public static final byte LOOP = 1;
+    public static final byte POWERS = 2;
+    public static final byte START = 3;
+
+    static final int LOOP_RECORD_SIZE = 1 + 8 + 4 * 4 + 4 * 2 + 1 + 8 * 6;
+    static final int POWERS_RECORD_SIZE = 1 + 8 + 8 * 4;
+    static final int START_RECORD_SIZE = 1 + 8 + 8 * 3;
+
+    private ByteBuffer buffer;
+
+    /* Current record */
+    public byte type;
+    public long nanos;
+
+    /* Last LOOP record, the pose is also set by START */
+    public int[] encoders = new int[4];
+    public int[] analog = new int[4];
+    public int digitals;
+    public double heading;
+    public double intakeLeftMAmps;
+    public double intakeRightMAmps;
+    public double poseX;
+    public double poseY;
+    public double poseHeading;
+
+    /* Last POWERS record */
+    public MecanumPowers powers = new MecanumPowers(0, 0, 0, 0);
+
+    public FlightLog(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a flight log");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported flight log version " + version);
+        }
+        buffer.getShort();
+    }
+
+    public static FlightLog open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return new FlightLog(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        }
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false once the end of the log has been reached
+     */
+    public boolean next() {
+        if (!buffer.hasRemaining()) {
+            type = END;
+            return false;
+        }
+
+        type = buffer.get();
+        switch (type) {
+            case END:
+                return false;
+            case LOOP:
+                nanos = buffer.getLong();
+                for (int i = 0; i < 4; i++) {
+                    encoders[i] = buffer.getInt();
+                }
+                for (int i = 0; i < 4; i++) {
+                    analog[i] = buffer.getShort();
+                }
+                digitals = buffer.get() & 0xFF;
+                heading = buffer.getDouble();
+                intakeLeftMAmps = buffer.getDouble();
+                intakeRightMAmps = buffer.getDouble();
+                poseX = buffer.getDouble();
+                poseY = buffer.getDouble();
+                poseHeading = buffer.getDouble();
+                return true;
+            case START:
+                nanos = buffer.getLong();
+                poseX = buffer.getDouble();
+                poseY = buffer.getDouble();
+                poseHeading = buffer.getDouble();
+                return true;
+            case POWERS:
+                nanos = buffer.getLong();
+                powers.frontLeft = buffer.getDouble();
+                powers.frontRight = buffer.getDouble();
+                powers.backLeft = buffer.getDouble();
+                powers.backRight = buffer.getDouble();
+                return true;
+            default:
+                throw new IllegalStateException("Unknown flight log record type " + type +
+                        " at byte " + (buffer.position() - 1));
+        }
+    }
+
+    public boolean digitalInputState(int port) {
+        return (digitals & (1 << port)) != 0;
+    }
+}
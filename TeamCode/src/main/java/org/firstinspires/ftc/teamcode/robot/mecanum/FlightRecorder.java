@@ -0,0 +1,173 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrent;
+import org.openftc.revextensions2.RevBulkData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Records what the robot saw and did every loop into a compact binary log, so matches can be looked
+ * at (and replayed) afterwards. The whole log is mapped into memory up front, so recording a loop
+ * is just a handful of puts into a direct buffer. There are no system calls, no allocation and no
+ * flushing: the kernel writes the pages back on its own, even if the app gets killed mid-match.
+ *
+ * Once the log is full, further records are counted and dropped. See {@link FlightLog} for the
+ * format and for reading it back.
+ *
+ * Logs are made at their full size, so close() should be called when the op mode stops to trim
+ * them down to what was recorded, and prune() keeps old ones from piling up on the phone.
+ */
+public class FlightRecorder {
+    private ByteBuffer buffer;
+    private int dropped;
+    private File file; // Null unless we were opened from a file
+    private boolean closed;
+
+    /**
+     * Records into the given buffer, which should be direct so puts don't go through a heap array
+     * that has to be copied out later.
+     */
+    public FlightRecorder(ByteBuffer buffer) {
+        if (buffer.remaining() < FlightLog.HEADER_SIZE + FlightLog.LOOP_RECORD_SIZE) {
+            throw new IllegalArgumentException("Flight log buffer is too small to hold anything");
+        }
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.putInt(FlightLog.MAGIC);
+        this.buffer.putShort(FlightLog.VERSION);
+        this.buffer.putShort((short) 0); // Reserved
+    }
+
+    /**
+     * Creates (or overwrites) a log file of the given size and maps it for recording. The file is
+     * zero-filled, and a zero record type marks the end of the log, so nothing needs to be
+     * written on close.
+     */
+    public static FlightRecorder open(File file, int capacityBytes) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Couldn't create " + dir);
+        }
+
+        // The mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            raf.setLength(capacityBytes);
+            FlightRecorder recorder = new FlightRecorder(
+                    raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes));
+            recorder.file = file;
+            return recorder;
+        }
+    }
+
+    /**
+     * Deletes all but the newest keep logs in dir. Log names start with when they were made, so
+     * sorting them by name sorts them by age.
+     */
+    public static void prune(File dir, int keep) {
+        File[] logs = dir.listFiles((d, name) -> name.endsWith(".flight"));
+        if (logs == null || logs.length <= keep) {
+            return;
+        }
+        Arrays.sort(logs);
+        for (int i = 0; i < logs.length - Math.max(keep, 0); i++) {
+            logs[i].delete();
+        }
+    }
+
+    /**
+     * Writes the log out and trims the file down to what was recorded. Anything recorded after this
+     * is dropped, and closing again does nothing.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) buffer).force();
+        }
+        if (file != null) {
+            // The reader treats the end of the file like the zero byte that ends the log
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(buffer.position());
+            }
+        }
+    }
+
+    // Where the localizer started, so a replay can pick up from the same place
+    public void recordStart(long nanos, Pose start) {
+        if (!reserve(FlightLog.START_RECORD_SIZE)) {
+            return;
+        }
+        buffer.put(FlightLog.START);
+        buffer.putLong(nanos);
+        buffer.putDouble(start.x);
+        buffer.putDouble(start.y);
+        buffer.putDouble(start.heading);
+    }
+
+    public void recordLoop(long nanos, RevBulkData chassis, double heading, IntakeCurrent intake, Pose pose) {
+        if (!reserve(FlightLog.LOOP_RECORD_SIZE)) {
+            return;
+        }
+        buffer.put(FlightLog.LOOP);
+        buffer.putLong(nanos);
+        for (int i = 0; i < 4; i++) {
+            buffer.putInt(chassis.getMotorCurrentPosition(i));
+        }
+        for (int i = 0; i < 4; i++) {
+            buffer.putShort((short) chassis.getAnalogInputValue(i)); // Millivolts, never above 3.3 V
+        }
+        int digitals = 0;
+        for (int i = 0; i < 8; i++) {
+            if (chassis.getDigitalInputState(i)) {
+                digitals |= 1 << i;
+            }
+        }
+        buffer.put((byte) digitals);
+        buffer.putDouble(heading);
+        buffer.putDouble(intake.leftMAmps);
+        buffer.putDouble(intake.rightMAmps);
+        buffer.putDouble(pose.x);
+        buffer.putDouble(pose.y);
+        buffer.putDouble(pose.heading);
+    }
+
+    public void recordPowers(long nanos, MecanumPowers powers) {
+        if (!reserve(FlightLog.POWERS_RECORD_SIZE)) {
+            return;
+        }
+        buffer.put(FlightLog.POWERS);
+        buffer.putLong(nanos);
+        buffer.putDouble(powers.frontLeft);
+        buffer.putDouble(powers.frontRight);
+        buffer.putDouble(powers.backLeft);
+        buffer.putDouble(powers.backRight);
+    }
+
+    // Always leave room for the zero byte that ends the log
+    private boolean reserve(int size) {
+        if (closed || buffer.remaining() <= size) {
+            dropped++;
+            return false;
+        }
+        return true;
+    }
+
+    public int bytesWritten() {
+        return buffer.position();
+    }
+
+    // How many records didn't fit
+    public int dropped() {
+        return dropped;
+    }
+}
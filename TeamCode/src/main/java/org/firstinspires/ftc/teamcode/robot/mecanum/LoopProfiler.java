@@ -0,0 +1,88 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.teamcode.common.LatencyHistogram;
+
+/**
+ * Times each stage of the loop into its own histogram, so the dashboard can show which stage a
+ * slow loop came from instead of one number for the whole thing. Stages are timed by chaining
+ * lap() calls, each of which closes one stage and starts the next.
+ *
+ * These time the code and the hubs themselves, so like the IMU timing they stay on the system
+ * clock rather than the robot's.
+ */
+public class LoopProfiler {
+    public static final int BULK_READ = 0;
+    public static final int IMU = 1;
+    public static final int LOCALIZER = 2;
+    public static final int CURRENT = 3;
+    public static final int ACTION_CACHE = 4;
+    public static final int PATH = 5; // Includes the setPowers() it makes
+    public static final int POWERS = 6;
+    public static final int TELEMETRY = 7;
+    public static final String[] STAGES = {
+            "bulkRead", "imu", "localizer", "current", "actionCache", "path", "setPowers", "telemetry"
+    };
+
+    public final LatencyHistogram[] histograms;
+    private long windowStart;
+
+    // Built once so publishing doesn't build strings every packet
+    private final String[] p50Keys;
+    private final String[] p99Keys;
+    private final String[] maxKeys;
+
+    public LoopProfiler() {
+        histograms = new LatencyHistogram[STAGES.length];
+        p50Keys = new String[STAGES.length];
+        p99Keys = new String[STAGES.length];
+        maxKeys = new String[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            histograms[i] = new LatencyHistogram();
+            p50Keys[i] = "loop/" + STAGES[i] + " p50";
+            p99Keys[i] = "loop/" + STAGES[i] + " p99";
+            maxKeys[i] = "loop/" + STAGES[i] + " max";
+        }
+        windowStart = System.nanoTime();
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    // Records how long a stage took since start, and returns now so the next stage can start
+    public long lap(int stage, long start) {
+        long now = System.nanoTime();
+        histograms[stage].record(now - start);
+        return now;
+    }
+
+    /**
+     * Puts each stage's p50, p99 and max in milliseconds into the packet. Once a window's worth of
+     * loops have gone by we start over, so a slow patch early on doesn't hide how we're doing now.
+     */
+    public void publish(TelemetryPacket packet, double windowMillis) {
+        for (int i = 0; i < STAGES.length; i++) {
+            LatencyHistogram h = histograms[i];
+            if (h.count() == 0) {
+                continue;
+            }
+            packet.put(p50Keys[i], h.percentile(0.5) / 1000000.0);
+            packet.put(p99Keys[i], h.percentile(0.99) / 1000000.0);
+            packet.put(maxKeys[i], h.max() / 1000000.0);
+        }
+
+        long now = System.nanoTime();
+        if (windowMillis > 0 && now - windowStart >= windowMillis * 1000000) {
+            reset();
+            windowStart = now;
+        }
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms) {
+            h.reset();
+        }
+    }
+}
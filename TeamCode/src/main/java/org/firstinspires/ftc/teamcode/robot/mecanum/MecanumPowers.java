@@ -4,7 +4,6 @@ import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 public class MecanumPowers {
@@ -21,16 +20,21 @@ public class MecanumPowers {
     }
 
     public MecanumPowers(double x, double y, double turnPower) {
+        set(x, y, turnPower);
+    }
+
+    public MecanumPowers(Pose p) {
+        this(p.x, p.y, p.heading);
+    }
+
+    // Reuses this object for a new direction, so code running every loop doesn't need a new one
+    public MecanumPowers set(double x, double y, double turnPower) {
         this.frontLeft = x - turnPower - y;
         this.backLeft = x - turnPower + y;
         this.frontRight = x + turnPower + y;
         this.backRight = x + turnPower - y;
         this.scale();
-
-    }
-
-    public MecanumPowers(Pose p) {
-        this(p.x, p.y, p.heading);
+        return this;
     }
 
     public List<Double> asList() {
@@ -39,8 +43,9 @@ public class MecanumPowers {
 
     // If we're somehow above one, scale back down
     private void scale() {
-        List<Double> vals = asList();
-        double absMax = Math.max(Collections.max(vals), -Collections.min(vals));
+        double max = Math.max(Math.max(frontLeft, frontRight), Math.max(backLeft, backRight));
+        double min = Math.min(Math.min(frontLeft, frontRight), Math.min(backLeft, backRight));
+        double absMax = Math.max(max, -min);
         if (absMax > 1) {
             this.frontLeft /= absMax;
             this.frontRight /= absMax;
@@ -23,26 +23,32 @@ import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
 import org.firstinspires.ftc.teamcode.BuildConfig;
 import org.firstinspires.ftc.teamcode.autonomous.PurePursuitPath;
 import org.firstinspires.ftc.teamcode.autonomous.odometry.TwoWheelTrackingLocalizer;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.ActionScheduler;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.DelayedSubroutine;
 import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
 import org.firstinspires.ftc.teamcode.common.AxesSigns;
 import org.firstinspires.ftc.teamcode.common.BNO055IMUUtil;
+import org.firstinspires.ftc.teamcode.common.Clock;
+import org.firstinspires.ftc.teamcode.common.HeadingSampler;
 import org.firstinspires.ftc.teamcode.common.LoadTimer;
+import org.firstinspires.ftc.teamcode.common.LoopLogger;
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.CachedMotor;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.HorizontalSlide;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrentQueue;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
 import org.firstinspires.ftc.teamcode.common.math.TimePose;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrent;
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.MotorOutputCache;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.ServoToggle;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.SimpleLift;
 import org.openftc.revextensions2.ExpansionHubEx;
 import org.openftc.revextensions2.RevBulkData;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 @Config
@@ -53,23 +59,24 @@ public class SkystoneHardware {
     private FtcDashboard dashboard;
     public TelemetryPacket packet;
 
-    private Telemetry.Item[] telOdometry;
-    private Telemetry.Item[] telEncoders;
-    private Telemetry.Item[] telPowers;
-    private Telemetry.Item[] telAnalog;
+    private TelemetryPublisher telemetryPublisher;
+    private long lastLoopTime;
+    public LoopProfiler profiler = new LoopProfiler();
 
-    private Telemetry.Item telDigital;
-    private Telemetry.Item telLoopTime;
-    private Telemetry.Item telHertz;
-    private long lastTelemetryUpdate;
+    private long lastDashboardUpdate;
+    private boolean dashboardDue;
 
     /* Internal state */
+    // Everything on the robot times itself off this, so the simulator can swap in its own
+    public Clock clock = Clock.SYSTEM;
+
     /* Odometry */
     private double headingOffset;
+    public HeadingSampler headingSampler;
     public TwoWheelTrackingLocalizer localizer;
 
     /* Action cache */
-    public LinkedList<DelayedSubroutine> actionCache;
+    public ActionScheduler actionCache;
 
     /* Misc. state */
     public double lastHeading;
@@ -78,7 +85,10 @@ public class SkystoneHardware {
     public SimpleLift pidLift;
 
     public RevBulkData lastChassisRead;
+    private RevBulkData mechanicRead; // Lift encoders, only read on loops that need them
     private MecanumPowers powers;
+    public MotorOutputCache motorOutputs = new MotorOutputCache();
+    public FlightRecorder flightRecorder; // Null if recording is off or the log couldn't be opened
 
     /* Components */
     public ExpansionHubEx chassisHub;
@@ -93,6 +103,8 @@ public class SkystoneHardware {
     public List<DcMotorEx> allMotors;
     public List<Servo> allServos;
     public List<DcMotorEx> chassisMotors;
+    private CachedMotor frontLeftOutput, frontRightOutput, backLeftOutput, backRightOutput;
+    private CachedMotor intakeLeftOutput, intakeRightOutput;
 
     public DcMotorEx intakeLeft;
     public DcMotorEx intakeRight;
@@ -111,6 +123,12 @@ public class SkystoneHardware {
 
     public ServoToggle parkingMarker;
 
+    // Dashboard 0.3 can't tell us when a value is changed, so each loop we compare the servo
+    // positions against the ones we last handed the toggles and only touch them on a change
+    private ServoToggle[] configuredToggles;
+    private double[] servoConfig;
+    private double[] appliedServoConfig;
+
     /* Uneditable constants */
     public final static double TRACK_WIDTH = 16.5; // in
     public final static double WHEEL_DIAMETER = 4; // in
@@ -124,6 +142,14 @@ public class SkystoneHardware {
 
     /* Tunable parameters */
     public static double INTAKE_UNJAM_REVERSAL_TIME_MS = 200;
+    public static double DASHBOARD_INTERVAL_MS = 50; // Same 20 Hz as the driver station
+    public static double PROFILE_WINDOW_MS = 5000; // How often loop stage timings start over, 0 for never
+    public static boolean ASYNC_HEADING = true;
+    public static double MAX_HEADING_AGE_MS = 50; // Older async samples fall back to a direct read
+    public static boolean FLIGHT_RECORDER = true;
+    public static String FLIGHT_LOG_DIR = "/sdcard/FIRST/flightlogs";
+    public static int FLIGHT_LOG_MB = 16; // About ten minutes of loops
+    public static int FLIGHT_LOGS_KEPT = 20; // Older logs are deleted when a new one is opened
 
     public static int TRAY_DETECTOR_PORT = 0;
     public static double HAS_BLOCK_TRAY_THRESHOLD = 150;
@@ -163,10 +189,16 @@ public class SkystoneHardware {
      * @param start The robot's starting location on the field
      */
     public SkystoneHardware(HardwareMap hardwareMap, Telemetry telemetry, FtcDashboard dashboard, Pose start) {
+        this(hardwareMap, telemetry, dashboard, start, Clock.SYSTEM);
+    }
+
+    public SkystoneHardware(HardwareMap hardwareMap, Telemetry telemetry, FtcDashboard dashboard, Pose start, Clock clock) {
         LoadTimer loadTime = new LoadTimer();
+        this.clock = clock;
 
         /* Copy dashboard */
         this.dashboard = dashboard;
+        this.packet = new TelemetryPacket();
 
         /* Drive motors */
         frontLeft = hardwareMap.get(DcMotorEx.class, "leftFront");
@@ -176,6 +208,10 @@ public class SkystoneHardware {
         frontRight.setDirection(DcMotor.Direction.REVERSE);
         backRight.setDirection(DcMotor.Direction.REVERSE);
         powers = new MecanumPowers(0, 0, 0, 0);
+        frontLeftOutput = motorOutputs.wrap(frontLeft);
+        frontRightOutput = motorOutputs.wrap(frontRight);
+        backLeftOutput = motorOutputs.wrap(backLeft);
+        backRightOutput = motorOutputs.wrap(backRight);
         // Set up fast access lists
         chassisMotors = Arrays.asList(frontLeft, frontRight, backLeft, backRight);
 
@@ -185,11 +221,13 @@ public class SkystoneHardware {
         intakeRight.setDirection(DcMotorSimple.Direction.REVERSE);
         liftLeft = hardwareMap.get(DcMotorEx.class, "liftLeft");
         liftRight = hardwareMap.get(DcMotorEx.class, "liftRight");
+        intakeLeftOutput = motorOutputs.wrap(intakeLeft);
+        intakeRightOutput = motorOutputs.wrap(intakeRight);
         lastIntakeCurrent = new IntakeCurrent(0, 0);
         intakeCurrentQueue = new IntakeCurrentQueue();
 
         /* Lift and block grabbers */
-        pidLift = new SimpleLift(liftLeft, liftRight); // Also initializes lift
+        pidLift = new SimpleLift(motorOutputs, liftLeft, liftRight); // Also initializes lift
 
         allMotors = Arrays.asList(frontLeft, backLeft, frontRight, backRight, intakeLeft, intakeRight, liftLeft, liftRight);
 
@@ -234,6 +272,12 @@ public class SkystoneHardware {
                 PARKING_MARKER_OUT
         );
 
+        configuredToggles = new ServoToggle[]{blockGrabber, clawSpinner, lateralEncoderWheelLifter,
+                leftFoundationLatch, rightFoundationLatch, leftFang, rightFang, parkingMarker};
+        servoConfig = new double[configuredToggles.length * 2];
+        appliedServoConfig = new double[configuredToggles.length * 2];
+        readServoConfig(appliedServoConfig); // The toggles were just built from these
+
         allServos = Arrays.asList(blockFlipper.leftFlipper, blockFlipper.rightFlipper,
                 leftFoundationLatch.servo, rightFoundationLatch.servo, blockGrabber.servo, clawSpinner.servo,
                 leftFang.servo, rightFang.servo);
@@ -253,12 +297,18 @@ public class SkystoneHardware {
         calTime.stop();
 
         /* Init localization */
-        TimePose startPose4D = new TimePose(start, System.currentTimeMillis());
-        localizer = new TwoWheelTrackingLocalizer(0, 1, startPose4D);
+        TimePose startPose4D = new TimePose(start, clock.millis());
+        localizer = new TwoWheelTrackingLocalizer(0, 1, startPose4D, clock);
         this.lastHeading = 0;
 
+        /* Flight recorder */
+        flightRecorder = FLIGHT_RECORDER ? openFlightRecorder() : null;
+        if (flightRecorder != null) {
+            flightRecorder.recordStart(startPose4D.time * 1000000, start);
+        }
+
         /* Action cache */
-        actionCache = new LinkedList<>();
+        actionCache = new ActionScheduler();
 
         /* Telemetry */
         this.telemetry = telemetry;
@@ -269,7 +319,12 @@ public class SkystoneHardware {
     public SkystoneHardware() {} // Used for debugging
 
     public Pose pose() {
-        return localizer.pose();
+        return pose(new Pose(0, 0, 0));
+    }
+
+    // Copies our pose into out, for code that asks every loop
+    public Pose pose(Pose out) {
+        return localizer.pose(out);
     }
 
     private void initTelemetry() {
@@ -315,7 +370,7 @@ public class SkystoneHardware {
         // Load information
         log.add("Total time " + lT.millis() + " ms; Calibrate time " + cT.millis() + " ms");
         telemetry.update();
-        lastTelemetryUpdate = System.nanoTime();
+        lastLoopTime = clock.nanoTime();
     }
 
     private void initBNO055IMU(HardwareMap hardwareMap) {
@@ -324,145 +379,204 @@ public class SkystoneHardware {
         parameters.angleUnit = BNO055IMU.AngleUnit.RADIANS;
         parameters.loggingEnabled  = false;
         imu.initialize(parameters);
-        BNO055IMUUtil.remapAxes(imu, AxesOrder.XYZ, AxesSigns.NPN);
+        remapIMUAxes();
         headingOffset = imu.getAngularOrientation().firstAngle;
+        headingSampler = new HeadingSampler(imu);
     }
 
-    public void initBulkReadTelemetry() {
-        Telemetry.Line odometryLine = telemetry.addLine();
-        telOdometry = new Telemetry.Item[3];
-        telOdometry[0] = odometryLine.addData("X", "0");
-        telOdometry[1] = odometryLine.addData("Y", "0");
-        telOdometry[2] = odometryLine.addData("θ", "0");
-
-        Telemetry.Line encoderLine = telemetry.addLine();
-        telEncoders = new Telemetry.Item[4];
-        for (int i = 0; i < 4; i++) {
-            telEncoders[i] = encoderLine.addData("E" + i, -1);
-        }
+    // The hub is mounted on its side. This waits for the IMU to switch modes, so it takes a while
+    protected void remapIMUAxes() {
+        BNO055IMUUtil.remapAxes(imu, AxesOrder.XYZ, AxesSigns.NPN);
+    }
 
-        Telemetry.Line powersLine = telemetry.addLine();
-        telPowers = new Telemetry.Item[4];
-        telPowers[0] = powersLine.addData("FL", "0");
-        telPowers[1] = powersLine.addData("FR", "0");
-        telPowers[2] = powersLine.addData("BL", "0");
-        telPowers[3] = powersLine.addData("BR", "0");
-
-        Telemetry.Line analogLine = telemetry.addLine();
-        telAnalog = new Telemetry.Item[4];
-        for (int i = 0; i < 4; i++) {
-            telAnalog[i] = analogLine.addData("A" + i, -1);
+    /**
+     * Starts a new log for this op mode. If the log can't be opened we'd rather run without one than
+     * not run at all.
+     */
+    protected FlightRecorder openFlightRecorder() {
+        String name = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".flight";
+        File file = new File(FLIGHT_LOG_DIR, name);
+        try {
+            FlightRecorder.prune(file.getParentFile(), FLIGHT_LOGS_KEPT - 1);
+            return FlightRecorder.open(file, FLIGHT_LOG_MB * 1024 * 1024);
+        } catch (IOException | RuntimeException e) {
+            LoopLogger.warn("FlightRecorder", "Couldn't open %s: %s", file, e);
+            return null;
         }
+    }
 
-        telDigital = telemetry.addLine().addData("DIGITALS", "0 0 0 0 0 0 0 0");
+    // Call when the op mode stops, so the log is on disk and only takes up as much room as it used
+    public void closeFlightRecorder() {
+        if (flightRecorder == null) {
+            return;
+        }
+        try {
+            flightRecorder.close();
+        } catch (IOException e) {
+            LoopLogger.warn("FlightRecorder", "Couldn't close log: %s", e);
+        }
+        flightRecorder = null;
+    }
 
-        Telemetry.Line timingLine = telemetry.addLine("LOOP ");
-        telHertz = timingLine.addData("Hertz", -1);
-        telLoopTime = timingLine.addData("Millis", -1);
+    public void initBulkReadTelemetry() {
+        telemetryPublisher = new TelemetryPublisher(telemetry, clock);
     }
 
     public RevBulkData performBulkRead() {
+        long t = profiler.start();
         this.lastChassisRead = chassisHub.getBulkInputData();
-        this.lastHeading = imu.getAngularOrientation().firstAngle - headingOffset;
-        localizer.update(lastChassisRead, lastHeading);
-
-        // Adjust telemetry localizer info
-        telOdometry[0].setValue(String.format("%.1f", localizer.x()));
-        telOdometry[1].setValue(String.format("%.1f", localizer.y()));
-        telOdometry[2].setValue(String.format("%.1f", Math.toDegrees(localizer.h())));
-
-        telPowers[0].setValue(String.format("%.2f", powers.frontLeft));
-        telPowers[1].setValue(String.format("%.2f", powers.frontRight));
-        telPowers[2].setValue(String.format("%.2f", powers.backLeft));
-        telPowers[3].setValue(String.format("%.2f", powers.backRight));
-
-        // Adjust encoders and analog inputs
-        for (int i = 0; i < 4; i++) {
-            telEncoders[i].setValue(lastChassisRead.getMotorCurrentPosition(i));
-            telAnalog[i].setValue(lastChassisRead.getAnalogInputValue(i));
+        this.mechanicRead = null;
+        t = profiler.lap(LoopProfiler.BULK_READ, t);
+        this.lastHeading = readHeading() - headingOffset;
+        t = profiler.lap(LoopProfiler.IMU, t);
+        long timeNanos = localizer.timeNanos();
+        localizer.update(lastChassisRead, lastHeading, timeNanos);
+        t = profiler.lap(LoopProfiler.LOCALIZER, t);
+
+        // Adjust motor current and specialty reads
+        // We need to read both motors for current to check if they both spike simultaneously.
+        // Bulk reads don't include current, so these are still a transaction each.
+        lastIntakeCurrent.leftMAmps = mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 0);
+        lastIntakeCurrent.rightMAmps = mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 1);
+        profiler.lap(LoopProfiler.CURRENT, t);
+
+        if (flightRecorder != null) {
+            flightRecorder.recordLoop(timeNanos, lastChassisRead, lastHeading,
+                    lastIntakeCurrent, localizer.currentPosition);
         }
 
-        // Adjust digital inputs
-        StringBuilder digitals = new StringBuilder();
-        for (int i = 0; i < 8; i++) {
-            digitals.append(lastChassisRead.getDigitalInputState(i) ? 1 : 0).append(" ");
+        updateFromBulkRead();
+        return lastChassisRead;
+    }
+
+    /**
+     * Takes the newest heading from the background sampler, so the loop doesn't wait on I2C. Reads
+     * the IMU directly if the sampler is switched off, hasn't produced anything yet or has stalled.
+     * These time the I2C bus itself, so unlike everything else they stay on the system clock.
+     */
+    private double readHeading() {
+        if (ASYNC_HEADING) {
+            if (!headingSampler.running()) {
+                headingSampler.start();
+            }
+            if (headingSampler.poll() &&
+                    System.nanoTime() - headingSampler.sampleNanos < MAX_HEADING_AGE_MS * 1000000) {
+                telemetryPublisher.imuMillis = headingSampler.sampleReadNanos / 1000000.0;
+                telemetryPublisher.asyncHeading = true;
+                return headingSampler.sampleHeading;
+            }
+        } else if (headingSampler.running() || headingSampler.failed()) {
+            headingSampler.stop(); // Also clears a failure, so turning async back on retries at once
         }
-        telDigital.setValue(digitals.toString());
 
-        // Adjust motor current and specialty reads
-        // We need to read both motors for current to check if they both spike simultaneously
-        this.lastIntakeCurrent = new IntakeCurrent(
-                mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 0),
-                mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 1)
-        );
-        this.intakeCurrentQueue.add(this.lastIntakeCurrent);
+        long start = System.nanoTime();
+        double heading = imu.getAngularOrientation().firstAngle;
+        telemetryPublisher.imuMillis = (System.nanoTime() - start) / 1000000.0;
+        telemetryPublisher.asyncHeading = false;
+        return heading;
+    }
+
+    /**
+     * Everything we do each loop after talking to the hubs. Once warmed up this allocates nothing
+     * unless an action is queued or a dashboard packet goes out.
+     */
+    void updateFromBulkRead() {
+        this.intakeCurrentQueue.add(this.lastIntakeCurrent, clock.millis());
 
         // If we're stalling the intake, reverse for 200 milliseconds
         if (intakeCurrentQueue.stalled()) {
             this.setIntakePower(-1);
-            this.actionCache.add(new DelayedSubroutine((long) INTAKE_UNJAM_REVERSAL_TIME_MS, Subroutines.ENABLE_INTAKE));
+            this.actionCache.add(new DelayedSubroutine((long) INTAKE_UNJAM_REVERSAL_TIME_MS, Subroutines.ENABLE_INTAKE, clock.millis()));
         }
 
-        // Run any cached actions
-        Iterator<DelayedSubroutine> iterator = actionCache.listIterator();
-        long timeMillis = System.currentTimeMillis();
-        while(iterator.hasNext()) {
-            DelayedSubroutine action = iterator.next();
-            if (action.systemActionTime < timeMillis) {
-                action.action.runOnce(this);
-                iterator.remove();
+        long t = profiler.start();
+        runActionCache();
+        t = profiler.lap(LoopProfiler.ACTION_CACHE, t);
+
+        // Record this loop's values, they're only formatted when telemetry next goes out
+        telemetryPublisher.x = localizer.x();
+        telemetryPublisher.y = localizer.y();
+        telemetryPublisher.heading = localizer.h();
+        telemetryPublisher.powers = powers;
+        telemetryPublisher.chassisRead = lastChassisRead;
+        telemetryPublisher.loopMillis = (clock.nanoTime() - lastLoopTime) / 1000000.0;
+        telemetryPublisher.publishIfDue();
+
+        // Dashboard packets are queued and serialized on another thread, so rather than reuse one
+        // we keep filling the current packet until it's sent and only build a new one at 20 Hz
+        long timeMillis = clock.millis();
+        dashboardDue = timeMillis - lastDashboardUpdate >= DASHBOARD_INTERVAL_MS;
+        if (dashboardDue) {
+            packet.put("x", localizer.x());
+            packet.put("y", localizer.y());
+            packet.put("h", localizer.h());
+            packet.put("leftMAmps", lastIntakeCurrent.leftMAmps);
+            packet.put("rightMAmps", lastIntakeCurrent.rightMAmps);
+            packet.put("e0", lastChassisRead.getMotorCurrentPosition(0));
+            packet.put("e1", lastChassisRead.getMotorCurrentPosition(1));
+            packet.put("motorWritesSavedPerSec", motorOutputs.savedPerSecond(timeMillis));
+
+            packet.fieldOverlay()
+                    .setFill("blue")
+                    .fillCircle(localizer.x(), localizer.y(), 3);
+            profiler.publish(packet, PROFILE_WINDOW_MS);
+        }
+        profiler.lap(LoopProfiler.TELEMETRY, t);
+
+        /* Pick up any servo positions changed from FtcDashboard */
+        readServoConfig(servoConfig);
+        if (!Arrays.equals(servoConfig, appliedServoConfig)) {
+            for (int i = 0; i < configuredToggles.length; i++) {
+                double retract = servoConfig[2 * i];
+                double extend = servoConfig[2 * i + 1];
+                // Only touch the toggles whose own positions were tuned
+                if (retract != appliedServoConfig[2 * i] || extend != appliedServoConfig[2 * i + 1]) {
+                    configuredToggles[i].setPositions(retract, extend);
+                }
             }
+            System.arraycopy(servoConfig, 0, appliedServoConfig, 0, servoConfig.length);
         }
 
-        // Adjust elapsed time
-        double elapsed = ((System.nanoTime() - lastTelemetryUpdate) / 1000000.0);
-        telLoopTime.setValue("%.1f", elapsed);
-        telHertz.setValue("%.1f", 1000 / elapsed);
-
-        // Finalize telemetry update
-        telemetry.update();
+        lastLoopTime = clock.nanoTime();
+    }
 
-        this.packet = new TelemetryPacket();
-        packet.put("x", localizer.x());
-        packet.put("y", localizer.y());
-        packet.put("h", localizer.h());
-        packet.put("leftMAmps", lastIntakeCurrent.leftMAmps);
-        packet.put("rightMAmps", lastIntakeCurrent.rightMAmps);
-        packet.put("e0", lastChassisRead.getMotorCurrentPosition(0));
-        packet.put("e1", lastChassisRead.getMotorCurrentPosition(1));
-
-        packet.fieldOverlay()
-                .setFill("blue")
-                .fillCircle(localizer.x(), localizer.y(), 3);
-
-        /* Update any FtcDashboard parameters */
-        blockGrabber.retractPosition = BLOCK_GRABBER_OPEN;
-        blockGrabber.extendPosition = BLOCK_GRABBER_CLOSED;
-        clawSpinner.retractPosition = CLAW_SPINNER_PARALLEL;
-        clawSpinner.extendPosition = CLAW_SPINNER_ROTATED;
-        lateralEncoderWheelLifter.retractPosition = WHEEL_LIFTER_DOWN;
-        lateralEncoderWheelLifter.extendPosition = WHEEL_LIFTER_UP;
-        leftFoundationLatch.retractPosition = FOUNDATION_LATCH_OPEN + FOUNDATION_LATCH_LR_OFFSET;
-        leftFoundationLatch.extendPosition = FOUNDATION_LATCH_CLOSED + FOUNDATION_LATCH_LR_OFFSET;
-        rightFoundationLatch.retractPosition = FOUNDATION_LATCH_OPEN - FOUNDATION_LATCH_LR_OFFSET;
-        rightFoundationLatch.extendPosition = FOUNDATION_LATCH_CLOSED - FOUNDATION_LATCH_LR_OFFSET;
-        leftFang.retractPosition = FANGS_RAISED + FANGS_LR_OFFSET;
-        leftFang.extendPosition = FANGS_CLOSED + FANGS_LR_OFFSET;
-        rightFang.retractPosition = FANGS_RAISED - FANGS_LR_OFFSET;
-        rightFang.extendPosition = FANGS_CLOSED - FANGS_LR_OFFSET;
-        parkingMarker.retractPosition = PARKING_MARKER_IN;
-        parkingMarker.extendPosition = PARKING_MARKER_OUT;
-
-        lastTelemetryUpdate = System.nanoTime();
-        return lastChassisRead;
+    // Retract and extend positions of each of configuredToggles, in order, from the @Config values
+    private static void readServoConfig(double[] out) {
+        out[0] = BLOCK_GRABBER_OPEN;
+        out[1] = BLOCK_GRABBER_CLOSED;
+        out[2] = CLAW_SPINNER_PARALLEL;
+        out[3] = CLAW_SPINNER_ROTATED;
+        out[4] = WHEEL_LIFTER_DOWN;
+        out[5] = WHEEL_LIFTER_UP;
+        out[6] = FOUNDATION_LATCH_OPEN + FOUNDATION_LATCH_LR_OFFSET;
+        out[7] = FOUNDATION_LATCH_CLOSED + FOUNDATION_LATCH_LR_OFFSET;
+        out[8] = FOUNDATION_LATCH_OPEN - FOUNDATION_LATCH_LR_OFFSET;
+        out[9] = FOUNDATION_LATCH_CLOSED - FOUNDATION_LATCH_LR_OFFSET;
+        out[10] = FANGS_RAISED + FANGS_LR_OFFSET;
+        out[11] = FANGS_CLOSED + FANGS_LR_OFFSET;
+        out[12] = FANGS_RAISED - FANGS_LR_OFFSET;
+        out[13] = FANGS_CLOSED - FANGS_LR_OFFSET;
+        out[14] = PARKING_MARKER_IN;
+        out[15] = PARKING_MARKER_OUT;
     }
 
     // FTC Dashboard telemetry functions
-    public void drawDashboardPath(PurePursuitPath path) {path.draw(packet.fieldOverlay());}
+    public void drawDashboardPath(PurePursuitPath path) {
+        if (dashboardDue) {
+            path.draw(packet.fieldOverlay());
+        }
+    }
+
     public void sendDashboardTelemetryPacket() {
+        if (!dashboardDue) {
+            return;
+        }
         if (dashboard != null) {
             dashboard.sendTelemetryPacket(packet);
         }
+        packet = new TelemetryPacket();
+        lastDashboardUpdate = clock.millis();
+        dashboardDue = false;
     }
 
     public boolean hasBlockInTray() {
@@ -481,25 +595,46 @@ public class SkystoneHardware {
         return lastChassisRead.getDigitalInputState(RIGHT_LIMIT_SWITCH_PORT);
     }
 
-    public boolean hasAction(String tag) {
-        for (DelayedSubroutine s : actionCache) {
-            if (tag.equals(s.tag)) {
-                return true;
-            }
+    /**
+     * This loop's bulk read of the mechanic hub. It's only taken the first time something asks for
+     * it, so loops that don't need the lift encoders don't pay for another transaction.
+     */
+    public RevBulkData mechanicRead() {
+        if (mechanicRead == null) {
+            mechanicRead = mechanicHub.getBulkInputData();
         }
-        return false;
+        return mechanicRead;
+    }
+
+    // Runs the lift, only reading the mechanic hub when it needs to know where the lift is
+    public void updateLift() {
+        pidLift.update(pidLift.needsPosition() ? mechanicRead() : null);
+    }
+
+    // Run any cached actions that are due
+    void runActionCache() {
+        actionCache.runDue(this, clock.millis());
+    }
+
+    public boolean hasAction(String tag) {
+        return actionCache.hasTag(tag);
     }
 
     public void setPowers(MecanumPowers powers) {
+        long t = profiler.start();
         this.powers = powers;
-        frontLeft.setPower(powers.frontLeft);
-        frontRight.setPower(powers.frontRight);
-        backLeft.setPower(powers.backLeft);
-        backRight.setPower(powers.backRight);
+        if (flightRecorder != null) {
+            flightRecorder.recordPowers(localizer.timeNanos(), powers);
+        }
+        frontLeftOutput.setPower(powers.frontLeft);
+        frontRightOutput.setPower(powers.frontRight);
+        backLeftOutput.setPower(powers.backLeft);
+        backRightOutput.setPower(powers.backRight);
+        profiler.lap(LoopProfiler.POWERS, t);
     }
 
     public void setIntakePower(double d) {
-        intakeLeft.setPower(d);
-        intakeRight.setPower(d);
+        intakeLeftOutput.setPower(d);
+        intakeRightOutput.setPower(d);
     }
 }
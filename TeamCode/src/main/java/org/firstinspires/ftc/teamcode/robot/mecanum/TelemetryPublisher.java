@@ -0,0 +1,145 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.common.Clock;
+import org.firstinspires.ftc.teamcode.common.TextBuffer;
+import org.openftc.revextensions2.RevBulkData;
+
+/**
+ * Driver station telemetry for the bulk read loop. Every loop we only store the raw values, and
+ * they're formatted and pushed once per transmission window. The driver station only ever shows the
+ * newest values, so nothing it would display is lost.
+ */
+public class TelemetryPublisher {
+    private Telemetry telemetry;
+    private Clock clock;
+
+    /* Raw values, written every loop */
+    public double x;
+    public double y;
+    public double heading; // Radians
+    public MecanumPowers powers;
+    public double loopMillis;
+    public double imuMillis; // How long the last heading read took, off the loop if async
+    public boolean asyncHeading;
+    // Bulk data can't change once it's been read, so holding on to it is as good as a copy
+    public RevBulkData chassisRead;
+
+    /* Formatted values the telemetry items point at */
+    private TextBuffer[] telOdometry;
+    private TextBuffer[] telEncoders;
+    private TextBuffer[] telPowers;
+    private TextBuffer[] telAnalog;
+    private TextBuffer telDigital;
+    private TextBuffer telLoopTime;
+    private TextBuffer telHertz;
+    private TextBuffer telImu;
+
+    private long lastTransmission;
+
+    public TelemetryPublisher(Telemetry telemetry) {
+        this(telemetry, Clock.SYSTEM);
+    }
+
+    public TelemetryPublisher(Telemetry telemetry, Clock clock) {
+        this.telemetry = telemetry;
+        this.clock = clock;
+        this.powers = new MecanumPowers(0, 0, 0, 0);
+        this.lastTransmission = clock.nanoTime();
+
+        Telemetry.Line odometryLine = telemetry.addLine();
+        telOdometry = textBuffers(3);
+        odometryLine.addData("X", telOdometry[0]);
+        odometryLine.addData("Y", telOdometry[1]);
+        odometryLine.addData("θ", telOdometry[2]);
+
+        Telemetry.Line encoderLine = telemetry.addLine();
+        telEncoders = textBuffers(4);
+        for (int i = 0; i < 4; i++) {
+            encoderLine.addData("E" + i, telEncoders[i]);
+        }
+
+        Telemetry.Line powersLine = telemetry.addLine();
+        telPowers = textBuffers(4);
+        powersLine.addData("FL", telPowers[0]);
+        powersLine.addData("FR", telPowers[1]);
+        powersLine.addData("BL", telPowers[2]);
+        powersLine.addData("BR", telPowers[3]);
+
+        Telemetry.Line analogLine = telemetry.addLine();
+        telAnalog = textBuffers(4);
+        for (int i = 0; i < 4; i++) {
+            analogLine.addData("A" + i, telAnalog[i]);
+        }
+
+        telDigital = new TextBuffer(16);
+        telemetry.addLine().addData("DIGITALS", telDigital);
+
+        Telemetry.Line timingLine = telemetry.addLine("LOOP ");
+        telHertz = new TextBuffer(16);
+        telLoopTime = new TextBuffer(16);
+        telImu = new TextBuffer(16);
+        timingLine.addData("Hertz", telHertz);
+        timingLine.addData("Millis", telLoopTime);
+        timingLine.addData("IMU", telImu);
+    }
+
+    private static TextBuffer[] textBuffers(int count) {
+        TextBuffer[] buffers = new TextBuffer[count];
+        for (int i = 0; i < count; i++) {
+            buffers[i] = new TextBuffer(24);
+        }
+        return buffers;
+    }
+
+    public boolean transmissionDue() {
+        return (clock.nanoTime() - lastTransmission) / 1000000 >= telemetry.getMsTransmissionInterval();
+    }
+
+    /**
+     * Formats and sends the latest values if the transmission window has come around. If the SDK
+     * turns the update down because its own timer hasn't quite run out, we try again next loop
+     * rather than waiting a whole window.
+     *
+     * @return whether telemetry was transmitted
+     */
+    public boolean publishIfDue() {
+        if (!transmissionDue()) {
+            return false;
+        }
+
+        format();
+        if (telemetry.update()) {
+            lastTransmission = clock.nanoTime();
+            return true;
+        }
+        return false;
+    }
+
+    private void format() {
+        telOdometry[0].set(x, 1);
+        telOdometry[1].set(y, 1);
+        telOdometry[2].set(Math.toDegrees(heading), 1);
+
+        telPowers[0].set(powers.frontLeft, 2);
+        telPowers[1].set(powers.frontRight, 2);
+        telPowers[2].set(powers.backLeft, 2);
+        telPowers[3].set(powers.backRight, 2);
+
+        if (chassisRead != null) {
+            for (int i = 0; i < 4; i++) {
+                telEncoders[i].set(chassisRead.getMotorCurrentPosition(i));
+                telAnalog[i].set(chassisRead.getAnalogInputValue(i));
+            }
+
+            telDigital.clear();
+            for (int i = 0; i < 8; i++) {
+                telDigital.append(chassisRead.getDigitalInputState(i) ? '1' : '0').append(' ');
+            }
+        }
+
+        telLoopTime.set(loopMillis, 1);
+        telHertz.set(1000 / loopMillis, 1);
+        telImu.set(imuMillis, 1).append(asyncHeading ? " async" : " sync");
+    }
+}
@@ -14,9 +14,13 @@ public class DriveForwardAuto extends LinearOpMode {
     public void runOpMode() throws InterruptedException {
         SkystoneHardware robot = new SkystoneHardware(this.hardwareMap, this.telemetry,
                 FtcDashboard.getInstance(), new Pose(0, 0, 0));
-        waitForStart();
-        robot.setPowers(MecanumUtil.powersFromAngle(0, 0.4, 0));
-        sleep(300);
-        robot.setPowers(MecanumUtil.STOP);
+        try {
+            waitForStart();
+            robot.setPowers(MecanumUtil.powersFromAngle(0, 0.4, 0));
+            sleep(300);
+            robot.setPowers(MecanumUtil.STOP);
+        } finally {
+            robot.closeFlightRecorder();
+        }
     }
 }
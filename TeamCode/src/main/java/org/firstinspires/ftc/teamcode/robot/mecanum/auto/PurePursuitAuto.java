@@ -20,6 +20,7 @@ import org.firstinspires.ftc.teamcode.common.elements.Alliance;
 import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
 import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.LoopProfiler;
 import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
 import org.firstinspires.ftc.teamcode.robot.mecanum.MecanumUtil;
 import org.firstinspires.ftc.teamcode.robot.mecanum.auto.vision.ImprovedSkystoneDetector;
@@ -40,7 +41,7 @@ public abstract class PurePursuitAuto extends SimulatableMecanumOpMode {
     Pose DEFAULT_START_POSITION = new Pose(-FIELD_RADIUS + 22.75 + 9, FIELD_RADIUS - 9, 3 * Math.PI / 2);
 
     SkystoneHardware robot;
-    PurePursuitPath followPath;
+    public PurePursuitPath followPath;
     private Telemetry.Item skystoneSeen;
 
     // Robot state
@@ -60,11 +61,9 @@ public abstract class PurePursuitAuto extends SimulatableMecanumOpMode {
         }
         this.robot = this.getRobot(start);
         // During this we're also going to init our lift again
-        robot.pidLift.left.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        robot.pidLift.right.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+        robot.pidLift.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         startPhoneCamDetector(ALLIANCE);
-        robot.pidLift.left.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        robot.pidLift.right.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        robot.pidLift.setMode(DcMotor.RunMode.RUN_TO_POSITION);
 
         // Display skystone on driver station
         skystoneSeen = telemetry.addLine().addData("Skystone", "LOADING");
@@ -97,7 +96,9 @@ public abstract class PurePursuitAuto extends SimulatableMecanumOpMode {
         robot.sendDashboardTelemetryPacket();
 
         if (!followPath.finished()) {
+            long start = robot.profiler.start();
             followPath.update();
+            robot.profiler.lap(LoopProfiler.PATH, start);
         } else {
             robot.setPowers(MecanumUtil.STOP);
             stop();
@@ -107,5 +108,7 @@ public abstract class PurePursuitAuto extends SimulatableMecanumOpMode {
     @Override
     public void stop() {
         robot.blockGrabber.retract();
+        robot.closeFlightRecorder();
+        notifySimulatorDone();
     }
 }
@@ -10,6 +10,7 @@ import org.firstinspires.ftc.teamcode.common.SimulatableMecanumOpMode;
 import org.firstinspires.ftc.teamcode.common.elements.Alliance;
 import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.LoopProfiler;
 import org.firstinspires.ftc.teamcode.robot.mecanum.MecanumUtil;
 import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
 import org.firstinspires.ftc.teamcode.robot.mecanum.auto.vision.ImprovedSkystoneDetector;
@@ -27,7 +28,7 @@ public abstract class PurePursuitAutoRed extends SimulatableMecanumOpMode {
     Pose DEFAULT_START_POSITION = new Pose(-FIELD_RADIUS + 22.75 + 9, -FIELD_RADIUS + 9, 1 * Math.PI / 2);
 
     SkystoneHardware robot;
-    PurePursuitPath followPath;
+    public PurePursuitPath followPath;
     private Telemetry.Item skystoneSeen;
 
     // Robot state
@@ -43,11 +44,9 @@ public abstract class PurePursuitAutoRed extends SimulatableMecanumOpMode {
         this.robot = this.getRobot(start);
 
         // During this we're also going to init our lift again
-        robot.pidLift.left.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        robot.pidLift.right.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+        robot.pidLift.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         startPhoneCamDetector(ALLIANCE);
-        robot.pidLift.left.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        robot.pidLift.right.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        robot.pidLift.setMode(DcMotor.RunMode.RUN_TO_POSITION);
 
         // Display skystone on driver station
         skystoneSeen = telemetry.addLine().addData("Skystone", "LOADING");
@@ -77,7 +76,9 @@ public abstract class PurePursuitAutoRed extends SimulatableMecanumOpMode {
         robot.sendDashboardTelemetryPacket();
 
         if (!followPath.finished()) {
+            long start = robot.profiler.start();
             followPath.update();
+            robot.profiler.lap(LoopProfiler.PATH, start);
         } else {
             robot.setPowers(MecanumUtil.STOP);
             stop();
@@ -87,5 +88,7 @@ public abstract class PurePursuitAutoRed extends SimulatableMecanumOpMode {
     @Override
     public void stop() {
         robot.blockGrabber.retract();
+        robot.closeFlightRecorder();
+        notifySimulatorDone();
     }
 }
@@ -12,6 +12,7 @@ import org.firstinspires.ftc.teamcode.common.SimulatableMecanumOpMode;
 import org.firstinspires.ftc.teamcode.common.elements.Alliance;
 import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.LoopProfiler;
 import org.firstinspires.ftc.teamcode.robot.mecanum.MecanumUtil;
 import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
 import org.openftc.revextensions2.RevBulkData;
@@ -26,7 +27,7 @@ public class TestPurePursuitAuto extends SimulatableMecanumOpMode {
     Pose DEFAULT_START_POSITION = new Pose(-FIELD_RADIUS + 22.75 + 9, FIELD_RADIUS - 9, 3 * Math.PI / 2);
 
     SkystoneHardware robot;
-    PurePursuitPath followPath;
+    public PurePursuitPath followPath;
 
     // Robot state
 
@@ -57,7 +58,9 @@ public class TestPurePursuitAuto extends SimulatableMecanumOpMode {
         robot.sendDashboardTelemetryPacket();
 
         if (!followPath.finished()) {
+            long start = robot.profiler.start();
             followPath.update();
+            robot.profiler.lap(LoopProfiler.PATH, start);
         } else {
             robot.setPowers(MecanumUtil.STOP);
             stop();
@@ -67,5 +70,7 @@ public class TestPurePursuitAuto extends SimulatableMecanumOpMode {
     @Override
     public void stop() {
         robot.blockGrabber.retract();
+        robot.closeFlightRecorder();
+        notifySimulatorDone();
     }
 }
@@ -32,22 +32,26 @@ public class CalibrateBlockDetection extends LinearOpMode {
         this.dashboard = FtcDashboard.getInstance();
         this.toneGen = new ToneGenerator(AudioManager.STREAM_MUSIC, 100);
         this.robot = new SkystoneHardware(this.hardwareMap, this.telemetry, FtcDashboard.getInstance(), new Pose(0, 0, 0));
-        waitForStart();
-        robot.setIntakePower(0.5);
+        try {
+            waitForStart();
+            robot.setIntakePower(0.5);
 
-        while(opModeIsActive()) {
-            robot.intakeCurrentQueue.add(new IntakeCurrent(
-                    robot.mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 0),
-                    robot.mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 1)
-            ));
-            boolean hasBlock = robot.intakeCurrentQueue.hasBlock();
-            if (hasBlock) {
-                toneGen.startTone(ToneGenerator.TONE_PROP_BEEP2, 150);
-                robot.setIntakePower(0.15);
-                sleep(1000);
-                robot.setIntakePower(0.5);
-                sleep(500);
+            while(opModeIsActive()) {
+                robot.intakeCurrentQueue.add(new IntakeCurrent(
+                        robot.mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 0),
+                        robot.mechanicHub.getMotorCurrentDraw(ExpansionHubEx.CurrentDrawUnits.MILLIAMPS, 1)
+                ));
+                boolean hasBlock = robot.intakeCurrentQueue.hasBlock();
+                if (hasBlock) {
+                    toneGen.startTone(ToneGenerator.TONE_PROP_BEEP2, 150);
+                    robot.setIntakePower(0.15);
+                    sleep(1000);
+                    robot.setIntakePower(0.5);
+                    sleep(500);
+                }
             }
+        } finally {
+            robot.closeFlightRecorder();
         }
     }
 }
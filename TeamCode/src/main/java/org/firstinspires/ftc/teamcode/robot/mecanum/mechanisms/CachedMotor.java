@@ -0,0 +1,55 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * A motor that only passes on power and mode commands that change something. Get one from
+ * MotorOutputCache.wrap() so its writes are counted with the rest.
+ */
+public class CachedMotor {
+    public final DcMotorEx motor;
+    private final MotorOutputCache cache;
+
+    // NaN and null mean we don't know, so the next command always goes out
+    private double power = Double.NaN;
+    private DcMotor.RunMode mode;
+
+    CachedMotor(MotorOutputCache cache, DcMotorEx motor) {
+        this.cache = cache;
+        this.motor = motor;
+    }
+
+    public void setPower(double power) {
+        if (Math.abs(power - this.power) < MotorOutputCache.POWER_EPSILON &&
+                (power != 0 || this.power == 0)) {
+            cache.skipped++;
+            return;
+        }
+        motor.setPower(power);
+        this.power = power;
+        cache.writes++;
+    }
+
+    public void setMode(DcMotor.RunMode mode) {
+        if (mode == this.mode) {
+            cache.skipped++;
+            return;
+        }
+        motor.setMode(mode);
+        this.mode = mode;
+        cache.writes++;
+        // The SDK can change the power under us when switching modes, so send the next one whatever it is
+        this.power = Double.NaN;
+    }
+
+    // The last power we sent, only asking the hub if we don't know it
+    public double power() {
+        return Double.isNaN(power) ? motor.getPower() : power;
+    }
+
+    public void invalidate() {
+        power = Double.NaN;
+        mode = null;
+    }
+}
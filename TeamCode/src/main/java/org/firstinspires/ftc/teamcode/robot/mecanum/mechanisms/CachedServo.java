@@ -0,0 +1,32 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * A servo that only passes on positions it isn't already at. Subroutines re-command servos to
+ * wherever they already are all the time, and each of those would be its own Lynx transaction.
+ */
+public class CachedServo {
+    public final Servo servo;
+    private double position = Double.NaN; // NaN means we don't know, so the next command goes out
+
+    public CachedServo(Servo servo) {
+        this.servo = servo;
+    }
+
+    public void setPosition(double position) {
+        if (position != this.position) {
+            servo.setPosition(position);
+            this.position = position;
+        }
+    }
+
+    // The last position we sent, only asking the hub if we don't know it
+    public double position() {
+        return Double.isNaN(position) ? servo.getPosition() : position;
+    }
+
+    public void invalidate() {
+        position = Double.NaN;
+    }
+}
@@ -21,10 +21,14 @@ public class HorizontalSlide {
 
     public Servo leftFlipper;
     public Servo rightFlipper;
+    private CachedServo leftOutput;
+    private CachedServo rightOutput;
 
     public HorizontalSlide(Servo leftFlipper, Servo rightFlipper) {
         this.leftFlipper = leftFlipper;
         this.rightFlipper = rightFlipper;
+        this.leftOutput = new CachedServo(leftFlipper);
+        this.rightOutput = new CachedServo(rightFlipper);
         leftFlipper.setDirection(Servo.Direction.REVERSE);
         readyBlockIntake();
     }
@@ -37,8 +41,8 @@ public class HorizontalSlide {
 
 
     public void setPosition(double inches) {
-        leftFlipper.setPosition(LEFT_MIN + (LEFT_MAX - LEFT_MIN) * (inches / MAX_EXTENSION_IN));
-        rightFlipper.setPosition(RIGHT_MIN + (RIGHT_MAX - RIGHT_MIN) * (inches / MAX_EXTENSION_IN));
+        leftOutput.setPosition(LEFT_MIN + (LEFT_MAX - LEFT_MIN) * (inches / MAX_EXTENSION_IN));
+        rightOutput.setPosition(RIGHT_MIN + (RIGHT_MAX - RIGHT_MIN) * (inches / MAX_EXTENSION_IN));
     }
 
 
@@ -2,23 +2,11 @@ package org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms;
 
 import com.acmerobotics.dashboard.config.Config;
 
-import org.firstinspires.ftc.teamcode.autonomous.waypoints.DelayedSubroutine;
-import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
-
-import java.util.LinkedList;
+import org.firstinspires.ftc.teamcode.common.Clock;
 
 @Config
 public class IntakeCurrentQueue {
-    class TimeStampedValue {
-        public IntakeCurrent value;
-        public long timestamp;
-
-        public TimeStampedValue(IntakeCurrent value, long timestamp) {
-            this.value = value;
-            this.timestamp = timestamp;
-        }
-    }
-
+    // Only read at construction, the ring buffer is allocated once
     public static double MAX_LENGTH = 1000;
 
     public static double STALL_DETECT_MAMPS = 8000;
@@ -27,43 +15,123 @@ public class IntakeCurrentQueue {
     public static double BLOCK_INTAKE_SPIKE_OFFSET = 100;
     public static double BLOCK_INTAKE_DETECT_MAMPS = 3200;
 
-    LinkedList<TimeStampedValue> queue;
+    // Samples are copied into a ring buffer so add() doesn't allocate every loop. head is the
+    // index of the newest sample, and older samples are found by walking backwards from it.
+    private double[] leftMAmps;
+    private double[] rightMAmps;
+    private long[] timestamps;
+    private int head;
+    private int size;
+    private long count; // Samples ever added, sample n lives at index n % capacity
+
+    // The stall window is the samples from the last STALL_DETECT_MS. This is a monotonic deque of
+    // the samples in it (by number, oldest first) whose higher current is lower than every later
+    // sample's, so the first one is the lowest in the window. Every sample goes in and out at most
+    // once, so keeping it up to date is O(1) amortized.
+    private long[] window;
+    private int windowFirst;
+    private int windowSize;
+    private double windowMs; // The STALL_DETECT_MS it was built for
 
     public IntakeCurrentQueue() {
-        queue = new LinkedList<>();
+        int capacity = (int) MAX_LENGTH;
+        leftMAmps = new double[capacity];
+        rightMAmps = new double[capacity];
+        timestamps = new long[capacity];
+        head = -1;
+        size = 0;
+        window = new long[capacity + 1]; // Room for a new sample before the one it overwrites is dropped
+        windowMs = STALL_DETECT_MS;
     }
 
     public void add(IntakeCurrent value) {
-        this.add(value, System.currentTimeMillis());
+        this.add(value, Clock.SYSTEM.millis());
     }
 
+    // Timestamps should never go backwards
     public void add(IntakeCurrent value, long timestamp) {
-        queue.addFirst(new TimeStampedValue(value, timestamp));
-        while (queue.size() > MAX_LENGTH) {
-            queue.removeLast();
+        head = (head + 1) % timestamps.length;
+        leftMAmps[head] = value.leftMAmps;
+        rightMAmps[head] = value.rightMAmps;
+        timestamps[head] = timestamp;
+        size = Math.min(size + 1, timestamps.length);
+        count++;
+
+        if (windowMs != STALL_DETECT_MS) {
+            rebuildWindow();
+        } else {
+            pushWindow(count - 1);
+            trimWindow();
         }
     }
 
+    /**
+     * We're stalled if both motors have been drawing at least STALL_DETECT_MAMPS for all of the
+     * last STALL_DETECT_MS. A single sample where both are lower disqualifies us, and so does not
+     * having any samples from before the window yet.
+     */
     public boolean stalled() {
-        long minTime = queue.peekFirst().timestamp - (long) STALL_DETECT_MS;
-        for (TimeStampedValue tick : queue) {
-            // If we get here, we've iterated through enough of the list and haven't found any
-            // disqualifying samples. We're good to return true.
-            if (tick.timestamp < minTime) {
-                return true;
-            }
+        if (size == 0) {
+            return false;
+        }
+        if (windowMs != STALL_DETECT_MS) {
+            rebuildWindow(); // Changed from the dashboard
+        }
 
-            // A single too low sample disqualifies us
-            if (
-                    tick.value.leftMAmps < STALL_DETECT_MAMPS &&
-                    tick.value.rightMAmps < STALL_DETECT_MAMPS) {
-                return false;
-            }
+        // For when we haven't seen enough samples yet
+        long minTime = timestamps[head] - (long) STALL_DETECT_MS;
+        if (timestamps[index(size - 1)] >= minTime) {
+            return false;
         }
-        return false; // For when queue is empty
+        return higherCurrent(window[windowFirst]) >= STALL_DETECT_MAMPS;
     }
 
     public boolean hasBlock() {
-        return queue.peekFirst().value.leftMAmps > BLOCK_INTAKE_DETECT_MAMPS && queue.peekFirst().value.rightMAmps > BLOCK_INTAKE_DETECT_MAMPS;
+        return leftMAmps[head] > BLOCK_INTAKE_DETECT_MAMPS && rightMAmps[head] > BLOCK_INTAKE_DETECT_MAMPS;
+    }
+
+    // Index of the sample that is age samples older than the newest one
+    private int index(int age) {
+        return (head - age + timestamps.length) % timestamps.length;
+    }
+
+    private double higherCurrent(long sample) {
+        int i = (int) (sample % timestamps.length);
+        return Math.max(leftMAmps[i], rightMAmps[i]);
+    }
+
+    private void pushWindow(long sample) {
+        double current = higherCurrent(sample);
+        while (windowSize > 0 &&
+                higherCurrent(window[(windowFirst + windowSize - 1) % window.length]) >= current) {
+            windowSize--;
+        }
+        window[(windowFirst + windowSize) % window.length] = sample;
+        windowSize++;
+    }
+
+    // Drops samples that have aged out of the window or been overwritten in the ring buffer
+    private void trimWindow() {
+        long minTime = timestamps[head] - (long) STALL_DETECT_MS;
+        while (windowSize > 0) {
+            long first = window[windowFirst];
+            if (first >= count - size && timestamps[(int) (first % timestamps.length)] >= minTime) {
+                break;
+            }
+            windowFirst = (windowFirst + 1) % window.length;
+            windowSize--;
+        }
+    }
+
+    private void rebuildWindow() {
+        windowMs = STALL_DETECT_MS;
+        windowFirst = 0;
+        windowSize = 0;
+        for (long sample = count - size; sample < count; sample++) {
+            pushWindow(sample);
+        }
+        if (size > 0) {
+            trimWindow();
+        }
     }
 }
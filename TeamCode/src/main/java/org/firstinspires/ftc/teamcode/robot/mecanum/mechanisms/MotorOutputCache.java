@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers what we last sent each motor, so commands that wouldn't change anything never become
+ * a Lynx transaction. Most loops command the same powers as the last one, and every write we skip
+ * is hub time the next bulk read gets back.
+ */
+@Config
+public class MotorOutputCache {
+    // Power changes smaller than this aren't worth a write. Stopping is always written exactly.
+    public static double POWER_EPSILON = 0.005;
+
+    public long writes;
+    public long skipped;
+
+    private List<CachedMotor> motors;
+    private long windowStartMillis;
+    private long windowStartSkipped;
+    private double savedPerSecond;
+
+    public MotorOutputCache() {
+        motors = new ArrayList<>();
+    }
+
+    public CachedMotor wrap(DcMotorEx motor) {
+        CachedMotor cached = new CachedMotor(this, motor);
+        motors.add(cached);
+        return cached;
+    }
+
+    // For when something has talked to the motors directly and we can't trust what we remember
+    public void invalidate() {
+        for (int i = 0; i < motors.size(); i++) {
+            motors.get(i).invalidate();
+        }
+    }
+
+    /**
+     * How many writes a second we've skipped since this was last asked. Meant to be asked at a
+     * steady rate, like when a dashboard packet goes out.
+     */
+    public double savedPerSecond(long timeMillis) {
+        long elapsed = timeMillis - windowStartMillis;
+        if (elapsed > 0) {
+            savedPerSecond = (skipped - windowStartSkipped) * 1000.0 / elapsed;
+            windowStartMillis = timeMillis;
+            windowStartSkipped = skipped;
+        }
+        return savedPerSecond;
+    }
+}
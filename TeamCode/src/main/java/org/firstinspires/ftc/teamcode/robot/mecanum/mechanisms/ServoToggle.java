@@ -5,31 +5,54 @@ import com.qualcomm.robotcore.hardware.ServoImplEx;
 
 public class ServoToggle {
 
-    public Double retractPosition;
-    public Double extendPosition;
+    public double retractPosition;
+    public double extendPosition;
     public Servo servo;
+    private CachedServo output;
     private boolean extended;
 
-    public ServoToggle(Servo servo, Double retractPosition, Double extendPosition, Servo.Direction direction) {
+    public ServoToggle(Servo servo, double retractPosition, double extendPosition, Servo.Direction direction) {
         this.servo = servo;
+        this.output = new CachedServo(servo);
         servo.setDirection(direction);
         this.retractPosition = retractPosition;
         this.extendPosition = extendPosition;
 
-        servo.setPosition(retractPosition);
+        output.setPosition(retractPosition);
     }
 
-    public ServoToggle(Servo servo, Double retractPosition, Double extendPosition) {
+    public ServoToggle(Servo servo, double retractPosition, double extendPosition) {
         this(servo, retractPosition, extendPosition, Servo.Direction.FORWARD);
     }
 
     public void toggle() {
         this.extended = !this.extended;
-        servo.setPosition(target());
+        output.setPosition(target());
     }
 
     public void normalize() {
-        servo.setPosition(target());
+        output.setPosition(target());
+    }
+
+    // Sends the servo somewhere other than its two positions, until the next toggle or normalize
+    public void setPosition(double position) {
+        output.setPosition(position);
+    }
+
+    public double position() {
+        return output.position();
+    }
+
+    // Takes new positions from tuning. The servo only moves if it was holding one of the old
+    // positions, so somewhere set with setPosition() stays put.
+    public void setPositions(double retractPosition, double extendPosition) {
+        double position = output.position();
+        boolean holding = position == this.retractPosition || position == this.extendPosition;
+        this.retractPosition = retractPosition;
+        this.extendPosition = extendPosition;
+        if (holding) {
+            normalize();
+        }
     }
 
     public void extend() {
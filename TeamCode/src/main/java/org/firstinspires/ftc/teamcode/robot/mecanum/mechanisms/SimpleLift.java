@@ -4,6 +4,8 @@ import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 
+import org.openftc.revextensions2.RevBulkData;
+
 @Config
 public class SimpleLift {
     /* Our robot uses a two-motor lift, and it's really important the two motors be kept in sync.
@@ -32,34 +34,45 @@ public class SimpleLift {
     private boolean pidControlled;
 
     public DcMotorEx left, right;
+    private CachedMotor leftOutput, rightOutput;
 
     // Also initializes the DcMotor
     public SimpleLift(DcMotorEx left, DcMotorEx right) {
+        this(new MotorOutputCache(), left, right);
+    }
+
+    public SimpleLift(MotorOutputCache outputs, DcMotorEx left, DcMotorEx right) {
         this.left = left;
         this.right = right;
+        this.leftOutput = outputs.wrap(left);
+        this.rightOutput = outputs.wrap(right);
         left.setTargetPosition(GRABBING);
         right.setTargetPosition(GRABBING);
         doPID();
-        left.setPower(1);
-        right.setPower(1);
+        leftOutput.setPower(1);
+        rightOutput.setPower(1);
+    }
+
+    // Goes through the output cache, so use this rather than setting the motors' modes directly
+    public void setMode(DcMotor.RunMode mode) {
+        leftOutput.setMode(mode);
+        rightOutput.setMode(mode);
     }
 
     private void doPID() {
         if (!pidControlled) {
-            left.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            right.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            left.setPower(1);
-            right.setPower(1);
+            setMode(DcMotor.RunMode.RUN_TO_POSITION);
+            leftOutput.setPower(1);
+            rightOutput.setPower(1);
             pidControlled = true;
         }
     }
 
     private void doPower() {
         if (pidControlled) {
-            left.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            right.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            left.setPower(1);
-            right.setPower(1);
+            setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            leftOutput.setPower(1);
+            rightOutput.setPower(1);
             pidControlled = false;
         }
     }
@@ -113,10 +126,16 @@ public class SimpleLift {
     // or we might just YEET up by setting both motors to max power. We pick which one depending
     // on how far away we are from the target.
     public void update() {
+        update(null);
+    }
+
+    // Takes the position from the mechanic hub's bulk read for this loop, if we have one
+    public void update(RevBulkData mechanicRead) {
         // Don't spend time querying motor position if the lift isn't raised
-        if (targetPosition > PID_RANGE) {
-            int position = left.getCurrentPosition();
-            if (left.getCurrentPosition() + PID_RANGE < targetPosition) {
+        if (needsPosition()) {
+            int position = mechanicRead != null ?
+                    mechanicRead.getMotorCurrentPosition(left.getPortNumber()) : left.getCurrentPosition();
+            if (position + PID_RANGE < targetPosition) {
                 doPower();
             } else {
                 doPID();
@@ -126,6 +145,11 @@ public class SimpleLift {
         }
     }
 
+    // Whether update() will look at where the lift is
+    public boolean needsPosition() {
+        return targetPosition > PID_RANGE;
+    }
+
     public boolean up() {
         return targetPosition > GRABBING;
     }
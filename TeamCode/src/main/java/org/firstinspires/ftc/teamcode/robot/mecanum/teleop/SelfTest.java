@@ -73,51 +73,55 @@ public class SelfTest extends LinearOpMode {
         this.robot = new SkystoneHardware(this.hardwareMap, this.telemetry,
                 FtcDashboard.getInstance(), new Pose(0, 0, 0));
 
-        // We don't initialize bulk read telemetry because we'll do our own
-        telemetry.clearAll();
-        log = telemetry.log();
-        log.setCapacity(1024);
-        log.setDisplayOrder(Telemetry.Log.DisplayOrder.OLDEST_FIRST);
-        log.add("================================");
-        log.add("       SKYSTONE self test       ");
-        log.add("      Place robot ON GROUND     ");
-        log.add("================================");
-
-        // Disable all servos and motors
-        for (DcMotorEx m : robot.allMotors) {
-            m.setMotorDisable();
-        }
-        for (Servo s : robot.allServos) {
-            s.getController().pwmDisable();
-        }
-
-        // We start out with no errors
-        errors = new LinkedList<>();
-
-        // Set LEDs to white
-        robot.chassisHub.setLedColor(255, 255, 255);
-        robot.mechanicHub.setLedColor(255, 255, 255);
-
-        waitForStart();
-
-        // Verify modules work properly while no power is flowing
-        //verifyHubOperational(robot.chassisHub);
-        //verifyHubOperational(robot.mechanicHub);
-
-        // Verify sensors read they're not being pressed
-        verifySensorsWork();
-
-        // Have user push encoder wheels
-        verifyEncoderWheelsWork();
-
-        if (errors.size() == 0) {
-            log.add("Sensors are working properly. You may stop the program");
-        } else {
-            log.add("--------------------");
-            log.add("  FAILURE DETECTED  ");
-            log.add("--------------------");
+        try {
+            // We don't initialize bulk read telemetry because we'll do our own
+            telemetry.clearAll();
+            log = telemetry.log();
+            log.setCapacity(1024);
+            log.setDisplayOrder(Telemetry.Log.DisplayOrder.OLDEST_FIRST);
+            log.add("================================");
+            log.add("       SKYSTONE self test       ");
+            log.add("      Place robot ON GROUND     ");
+            log.add("================================");
+
+            // Disable all servos and motors
+            for (DcMotorEx m : robot.allMotors) {
+                m.setMotorDisable();
+            }
+            for (Servo s : robot.allServos) {
+                s.getController().pwmDisable();
+            }
+
+            // We start out with no errors
+            errors = new LinkedList<>();
+
+            // Set LEDs to white
+            robot.chassisHub.setLedColor(255, 255, 255);
+            robot.mechanicHub.setLedColor(255, 255, 255);
+
+            waitForStart();
+
+            // Verify modules work properly while no power is flowing
+            //verifyHubOperational(robot.chassisHub);
+            //verifyHubOperational(robot.mechanicHub);
+
+            // Verify sensors read they're not being pressed
+            verifySensorsWork();
+
+            // Have user push encoder wheels
+            verifyEncoderWheelsWork();
+
+            if (errors.size() == 0) {
+                log.add("Sensors are working properly. You may stop the program");
+            } else {
+                log.add("--------------------");
+                log.add("  FAILURE DETECTED  ");
+                log.add("--------------------");
+            }
+            sleep(30000);
+        } finally {
+            robot.closeFlightRecorder();
         }
-        sleep(30000);
     }
 
     private void addResult(String message, boolean good) {
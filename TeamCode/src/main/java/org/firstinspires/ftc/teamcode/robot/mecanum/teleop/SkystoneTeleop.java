@@ -113,7 +113,7 @@ public class SkystoneTeleop extends SimulatableMecanumOpMode {
             leftStickButtonPrev = false;
             /*if (robot.hasBlockInTray() && intakeOn) {
                 intakeOn = false;
-                robot.actionCache.add(new DelayedSubroutine(800, Subroutines.STOP_INTAKE));
+                robot.actionCache.add(new DelayedSubroutine(800, Subroutines.STOP_INTAKE, robot.clock.millis()));
             }*/
         }
 
@@ -135,9 +135,9 @@ public class SkystoneTeleop extends SimulatableMecanumOpMode {
                     } else {
                         robot.blockFlipper.readyBlockGrab();
                         robot.blockGrabber.extend(); // Grab the block
-                        robot.actionCache.add(new DelayedSubroutine(600, Subroutines.SET_FLIPPER_NORM_EXTEND));
+                        robot.actionCache.add(new DelayedSubroutine(600, Subroutines.SET_FLIPPER_NORM_EXTEND, robot.clock.millis()));
                     }
-                    robot.actionCache.add(new DelayedSubroutine(600, (robot) -> { robot.pidLift.changeLayer(1); }));
+                    robot.actionCache.add(new DelayedSubroutine(600, (robot) -> { robot.pidLift.changeLayer(1); }, robot.clock.millis()));
                     break;
 
                 case VERIFY:
@@ -147,9 +147,9 @@ public class SkystoneTeleop extends SimulatableMecanumOpMode {
                 case DROP:
                     robot.blockGrabber.retract();
                     if (robot.pidLift.layer <= 7) {
-                        robot.actionCache.add(new DelayedSubroutine(350, Subroutines.SET_FLIPPER_INTAKING));
-                        robot.actionCache.add(new DelayedSubroutine(700, Subroutines.LOWER_LIFT_TO_GRABBING));
-                        robot.actionCache.add(new DelayedSubroutine(1500, (robot) -> { robot.setIntakePower(INTAKE_POWER); }));
+                        robot.actionCache.add(new DelayedSubroutine(350, Subroutines.SET_FLIPPER_INTAKING, robot.clock.millis()));
+                        robot.actionCache.add(new DelayedSubroutine(700, Subroutines.LOWER_LIFT_TO_GRABBING, robot.clock.millis()));
+                        robot.actionCache.add(new DelayedSubroutine(1500, (robot) -> { robot.setIntakePower(INTAKE_POWER); }, robot.clock.millis()));
                         intakeOn = true;
                     }
                     break;
@@ -193,14 +193,14 @@ public class SkystoneTeleop extends SimulatableMecanumOpMode {
                     // If we've already grabbed the block, just flip out
                     robot.blockFlipper.readyBlockGrab();
                     robot.blockGrabber.extend(); // Grab the block
-                    robot.actionCache.add(new DelayedSubroutine(500, Subroutines.CAPSTONE_CLAW));
-                    robot.actionCache.add(new DelayedSubroutine(1200, Subroutines.OPEN_CLAW));
+                    robot.actionCache.add(new DelayedSubroutine(500, Subroutines.CAPSTONE_CLAW, robot.clock.millis()));
+                    robot.actionCache.add(new DelayedSubroutine(1200, Subroutines.OPEN_CLAW, robot.clock.millis()));
                 } else {
                     // If we're already there, let go
-                    if (robot.blockGrabber.servo.getPosition() == robot.BLOCK_GRABBER_CAPSTONE) {
+                    if (robot.blockGrabber.position() == robot.BLOCK_GRABBER_CAPSTONE) {
                         robot.blockGrabber.normalize();
                     } else {
-                        robot.blockGrabber.servo.setPosition(robot.BLOCK_GRABBER_CAPSTONE);
+                        robot.blockGrabber.setPosition(robot.BLOCK_GRABBER_CAPSTONE);
                     }
                 }
             }
@@ -241,6 +241,12 @@ public class SkystoneTeleop extends SimulatableMecanumOpMode {
             leftPrev = false;
         }
 
-        robot.pidLift.update();
+        robot.updateLift();
+    }
+
+    @Override
+    public void stop() {
+        robot.closeFlightRecorder();
+        super.stop();
     }
 }
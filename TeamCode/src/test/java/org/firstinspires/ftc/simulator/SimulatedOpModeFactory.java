@@ -2,16 +2,16 @@ package org.firstinspires.ftc.simulator;
 
 import com.qualcomm.robotcore.hardware.Gamepad;
 
+import org.firstinspires.ftc.simulator.utils.MockTelemetry;
 import org.firstinspires.ftc.teamcode.common.SimulatableMecanumOpMode;
 import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
 import org.firstinspires.ftc.teamcode.robot.mecanum.SkystoneHardware;
 import org.firstinspires.ftc.teamcode.robot.mecanum.VirtualSkystoneHardware;
-import org.mockito.Mockito;
-import org.mockito.stubbing.Answer;
-import org.openftc.easyopencv.OpenCvCamera;
 
-public class SimulatedOpModeFactory {
+import java.util.function.Function;
+
+public class SimulatedOpModeFactory implements SimulatableMecanumOpMode.Simulator {
     double FRAMERATE = 20;
     final static int INIT_ITERATIONS = 40;
     final static int RUN_ITERATIONS = 400;
@@ -19,54 +19,47 @@ public class SimulatedOpModeFactory {
 
     public SimulatableMecanumOpMode opMode; // Pointer to our op mode
     public VirtualSkystoneHardware robot; // Pointer to our virtual robot
+    public SkystoneState skystone = SKYSTONE; // What the phone camera "sees"
     public boolean stopRequested;
 
+    private Function<Pose, VirtualSkystoneHardware> robots;
+
     public SimulatedOpModeFactory(Class c) {
+        this(c, VirtualSkystoneHardware::new);
+    }
+
+    /**
+     * @param robots builds the virtual robot the op mode runs on from its start position, in case
+     *               something other than the physics model should stand in for the hardware
+     */
+    public SimulatedOpModeFactory(Class c, Function<Pose, VirtualSkystoneHardware> robots) {
         // Assert we were passed an opmode we can use
         assert SimulatableMecanumOpMode.class.isAssignableFrom(c);
 
         /*When we instantiate a SkystoneHardware object, we can optionally tell it where its start
         position is (otherwise, it defaults to zero). This defaulting case occurs in
-        SimulatableMecanumOpMode, so we only deal with the case where we're passed a position. We
-        override the getRobot method to take the position, intantiate a virtual robot, save that to
-        SimulatedOpModeFactory.robot, and return it as well.
+        SimulatableMecanumOpMode, so we only deal with the case where we're passed a position. The
+        op mode asks us for its robot (see getRobot below), and we instantiate a virtual robot,
+        save that to SimulatedOpModeFactory.robot, and return it as well.
+
+        The op mode is a plain instance rather than a Mockito spy, since every call on a spy goes
+        through Mockito and the simulator calls loop() hundreds of thousands of times.
          */
-        opMode = (SimulatableMecanumOpMode) Mockito.spy(c);
+        try {
+            opMode = (SimulatableMecanumOpMode) c.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't instantiate " + c.getName(), e);
+        }
+        opMode.simulator = this;
         stopRequested = false;
 
-        this.robot = new VirtualSkystoneHardware(new Pose(0, 0, 0));
-        Mockito.doAnswer((Answer<SkystoneHardware>) invocation -> {
-            Object[] args = invocation.getArguments();
-
-            // Instantiate a virtual robot based on the given start position
-            this.robot = new VirtualSkystoneHardware((Pose) args[0]);
-            return this.robot;
-        }).when(opMode).getRobot(Mockito.any());
-
-        Mockito.doNothing().when(opMode).startPhoneCamDetector(Mockito.any());
-        Mockito.doReturn(SKYSTONE).when(opMode).getSkystoneState();
-        Mockito.doNothing().when(opMode).stopPhoneCamDetector();
-
-        Mockito.doAnswer(invocation -> {
-            stopRequested = true;
-            return null;
-        }).when(opMode).stop();
-
-        /*then((Answer) invocation -> {
-            Object[] args = invocation.getArguments();
-
-            // Instantiate a virtual robot based on the given start position
-            this.robot = new VirtualSkystoneHardware((Pose) args[0]);
-            return this.robot;
-        });*/
-        /*Mockito.doAnswer(invocation -> {
-            this.running = false;
-            return null;
-        }).when(opMode).requestOpModeStop();*/
+        this.robots = robots;
+        this.robot = robots.apply(new Pose(0, 0, 0));
 
         // Mock the gamepads
         opMode.gamepad1 = new Gamepad();
         opMode.gamepad2 = new Gamepad();
+        opMode.telemetry = new MockTelemetry();
 
         opMode.init();
         opMode.init_loop();
@@ -84,4 +77,21 @@ public class SimulatedOpModeFactory {
         opMode.loop();
         robot.elapse(0.01);
     }
+
+    @Override
+    public SkystoneHardware getRobot(Pose start) {
+        // Instantiate a virtual robot based on the given start position
+        this.robot = robots.apply(start);
+        return this.robot;
+    }
+
+    @Override
+    public SkystoneState getSkystoneState() {
+        return skystone;
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
 }
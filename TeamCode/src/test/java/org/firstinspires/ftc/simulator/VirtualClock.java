@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.simulator;
+
+import org.firstinspires.ftc.teamcode.common.Clock;
+
+/**
+ * A clock that only moves when it's told to. Virtual robots advance theirs in elapse(), so every
+ * timer and delayed subroutine on the robot sees exactly the simulated time, no matter how fast
+ * the simulation actually runs.
+ */
+public class VirtualClock implements Clock {
+    public long nanos;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    public VirtualClock(long nanos) {
+        this.nanos = nanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    public void advance(double secs) {
+        nanos += Math.round(secs * 1e9);
+    }
+
+    public double seconds() {
+        return nanos / 1e9;
+    }
+}
@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.simulator.utils;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes the current thread allocates while running some code. Relies on the HotSpot
+ * extension of ThreadMXBean, which every JVM we run tests on has.
+ */
+public class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int MEASUREMENTS = 3;
+
+    public static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Runs loop warmup times so the JIT has settled, then returns how many bytes the next runs
+     * calls allocated, less whatever asking the JVM costs by itself. A recompile in the middle of a
+     * measurement can briefly bring back allocations escape analysis had removed, so this takes the
+     * smallest of a few measurements.
+     */
+    public static long bytesAllocated(Runnable loop, int warmup, int runs) {
+        for (int i = 0; i < warmup; i++) {
+            loop.run();
+        }
+
+        long start = allocatedBytes();
+        long overhead = allocatedBytes() - start;
+
+        long least = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < MEASUREMENTS && least > 0; attempt++) {
+            start = allocatedBytes();
+            for (int i = 0; i < runs; i++) {
+                loop.run();
+            }
+            least = Math.min(least, allocatedBytes() - start - overhead);
+        }
+        return least;
+    }
+}
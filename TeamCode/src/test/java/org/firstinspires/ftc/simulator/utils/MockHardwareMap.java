@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.simulator.utils;
+
+import com.qualcomm.hardware.bosch.BNO055IMU;
+import com.qualcomm.hardware.bosch.BNO055IMUImpl;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.mockito.Mockito;
+
+/**
+ * A hardware map that has every device it's asked for. Motors and servos get our own mock classes,
+ * and anything else (hubs, the IMU) gets a Mockito mock. Those are only touched while the robot is
+ * being built, so they don't slow the simulator down.
+ */
+public class MockHardwareMap extends HardwareMap {
+
+    public MockHardwareMap() {
+        super(null);
+    }
+
+    @Override
+    public <T> T get(Class<? extends T> classOrInterface, String deviceName) {
+        T device = tryGet(classOrInterface, deviceName);
+        if (device == null) {
+            HardwareDevice created = create(classOrInterface, deviceName);
+            put(deviceName, created);
+            device = classOrInterface.cast(created);
+        }
+        return device;
+    }
+
+    private static HardwareDevice create(Class<?> deviceClass, String deviceTag) {
+        if (deviceClass.equals(DcMotorEx.class)) {
+            return new MockDcMotorEx(deviceTag);
+        } else if (deviceClass.equals(Servo.class)) {
+            return new MockServo(deviceTag);
+        }
+
+        // Other devices don't have custom classes
+        HardwareDevice device = (HardwareDevice) Mockito.mock(deviceClass);
+        Mockito.doReturn(deviceTag).when(device).getDeviceName();
+
+        // But occasionally we just build our custom class features into the mocks
+        if (device instanceof BNO055IMUImpl) {
+            Orientation imuOrientation = new Orientation();
+            imuOrientation.firstAngle = 0;
+            imuOrientation.secondAngle = 0;
+            imuOrientation.thirdAngle = 0;
+            Mockito.doReturn(imuOrientation).when((BNO055IMUImpl) device).getAngularOrientation();
+            Mockito.doReturn(new BNO055IMU.Parameters()).when((BNO055IMUImpl) device).getParameters();
+        }
+        return device;
+    }
+}
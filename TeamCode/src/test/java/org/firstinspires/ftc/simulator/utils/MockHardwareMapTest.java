@@ -0,0 +1,30 @@
+package org.firstinspires.ftc.simulator.utils;
+
+import com.qualcomm.hardware.bosch.BNO055IMUImpl;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockHardwareMapTest {
+
+    @Test
+    void testMakesUpDevices() {
+        MockHardwareMap hardwareMap = new MockHardwareMap();
+        assertTrue(hardwareMap.get(DcMotorEx.class, "frontLeft") instanceof MockDcMotorEx);
+        assertTrue(hardwareMap.get(Servo.class, "blockGrabber") instanceof MockServo);
+        assertEquals("imu", hardwareMap.get(BNO055IMUImpl.class, "imu").getDeviceName());
+        assertEquals(0, hardwareMap.get(BNO055IMUImpl.class, "imu").getAngularOrientation().firstAngle);
+    }
+
+    @Test
+    void testSameDeviceEachTime() {
+        MockHardwareMap hardwareMap = new MockHardwareMap();
+        DcMotorEx motor = hardwareMap.get(DcMotorEx.class, "frontLeft");
+        assertSame(motor, hardwareMap.get(DcMotorEx.class, "frontLeft"));
+        assertNotSame(motor, hardwareMap.get(DcMotorEx.class, "frontRight"));
+        assertEquals(2, hardwareMap.getAll(DcMotorEx.class).size());
+    }
+}
@@ -1,10 +1,6 @@
 package org.firstinspires.ftc.simulator.utils;
 
-import com.qualcomm.hardware.lynx.LynxModule;
-import com.qualcomm.hardware.lynx.LynxModuleIntf;
-import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataResponse;
-
-import org.mockito.Mockito;
+import org.openftc.revextensions2.MockRevBulkData;
 import org.openftc.revextensions2.RevBulkData;
 
 public class MockRevBulkDataGenerator {
@@ -20,17 +16,8 @@ public class MockRevBulkDataGenerator {
         digitalInputs = new boolean[]{false, false, false, false, false, false, false, false};
     }
 
+    // The data shares our arrays rather than copying them, so it follows any changes we make
     public RevBulkData mock() {
-        RevBulkData data = Mockito.mock(RevBulkData.class);
-        Mockito.when(data.getMotorCurrentPosition(Mockito.anyInt()))
-                .thenAnswer(invocation ->
-                        encoderVals[invocation.getArgumentAt(0, Integer.class)]);
-        Mockito.when(data.getAnalogInputValue(Mockito.anyInt()))
-                .thenAnswer(invocation ->
-                        analogInputs[invocation.getArgumentAt(0, Integer.class)]);
-        Mockito.when(data.getDigitalInputState(Mockito.anyInt()))
-                .thenAnswer(invocation ->
-                        digitalInputs[invocation.getArgumentAt(0, Integer.class)]);
-        return data;
+        return new MockRevBulkData(encoderVals, analogInputs, digitalInputs);
     }
 }
@@ -0,0 +1,305 @@
+package org.firstinspires.ftc.simulator.utils;
+
+import org.firstinspires.ftc.robotcore.external.Func;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Telemetry that just remembers what it was given. Unlike a Mockito mock, calling it doesn't
+ * allocate, so it can sit inside loops we measure.
+ */
+public class MockTelemetry implements Telemetry {
+    public List<MockItem> items;
+    public List<String> logEntries;
+    public int updates;
+    private MockLog log;
+
+    private int msTransmissionInterval;
+    private boolean autoClear;
+    private String itemSeparator;
+    private String captionValueSeparator;
+
+    public MockTelemetry() {
+        this.items = new ArrayList<>();
+        this.logEntries = new ArrayList<>();
+        this.updates = 0;
+        this.log = new MockLog();
+        this.msTransmissionInterval = 250;
+        this.autoClear = true;
+        this.itemSeparator = " | ";
+        this.captionValueSeparator = " : ";
+    }
+
+    // Find the value most recently set for a caption, or null if there isn't one
+    public Object valueOf(String caption) {
+        for (MockItem item : items) {
+            if (item.caption.equals(caption)) {
+                return item.value;
+            }
+        }
+        return null;
+    }
+
+    public class MockItem implements Item {
+        public String caption;
+        public Object value;
+        private boolean retained;
+
+        MockItem(String caption, Object value) {
+            this.caption = caption;
+            this.value = value;
+            items.add(this);
+        }
+
+        @Override
+        public String getCaption() {
+            return caption;
+        }
+
+        @Override
+        public Item setCaption(String caption) {
+            this.caption = caption;
+            return this;
+        }
+
+        @Override
+        public Item setValue(String format, Object... args) {
+            this.value = String.format(format, args);
+            return this;
+        }
+
+        @Override
+        public Item setValue(Object value) {
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public <T> Item setValue(Func<T> valueProducer) {
+            this.value = valueProducer;
+            return this;
+        }
+
+        @Override
+        public <T> Item setValue(String format, Func<T> valueProducer) {
+            this.value = valueProducer;
+            return this;
+        }
+
+        @Override
+        public Item setRetained(Boolean retained) {
+            this.retained = retained != null && retained;
+            return this;
+        }
+
+        @Override
+        public boolean isRetained() {
+            return retained;
+        }
+
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            return MockTelemetry.this.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            return MockTelemetry.this.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            return MockTelemetry.this.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            return MockTelemetry.this.addData(caption, format, valueProducer);
+        }
+    }
+
+    public class MockLine implements Line {
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            return MockTelemetry.this.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            return MockTelemetry.this.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            return MockTelemetry.this.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            return MockTelemetry.this.addData(caption, format, valueProducer);
+        }
+    }
+
+    public class MockLog implements Log {
+        private int capacity = 9;
+        private DisplayOrder displayOrder = DisplayOrder.NEWEST_FIRST;
+
+        @Override
+        public int getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public DisplayOrder getDisplayOrder() {
+            return displayOrder;
+        }
+
+        @Override
+        public void setDisplayOrder(DisplayOrder displayOrder) {
+            this.displayOrder = displayOrder;
+        }
+
+        @Override
+        public void add(String entry) {
+            logEntries.add(entry);
+        }
+
+        @Override
+        public void add(String format, Object... args) {
+            logEntries.add(String.format(format, args));
+        }
+
+        @Override
+        public void clear() {
+            logEntries.clear();
+        }
+    }
+
+    @Override
+    public Item addData(String caption, String format, Object... args) {
+        return new MockItem(caption, String.format(format, args));
+    }
+
+    @Override
+    public Item addData(String caption, Object value) {
+        return new MockItem(caption, value);
+    }
+
+    @Override
+    public <T> Item addData(String caption, Func<T> valueProducer) {
+        return new MockItem(caption, valueProducer);
+    }
+
+    @Override
+    public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+        return new MockItem(caption, valueProducer);
+    }
+
+    @Override
+    public boolean removeItem(Item item) {
+        return items.remove(item);
+    }
+
+    @Override
+    public void clear() {
+        items.removeIf(item -> !item.isRetained());
+    }
+
+    @Override
+    public void clearAll() {
+        items.clear();
+    }
+
+    @Override
+    public Object addAction(Runnable action) {
+        return action;
+    }
+
+    @Override
+    public boolean removeAction(Object token) {
+        return false;
+    }
+
+    @Override
+    public void speak(String text) {
+
+    }
+
+    @Override
+    public void speak(String text, String languageCode, String countryCode) {
+
+    }
+
+    @Override
+    public boolean update() {
+        updates++;
+        return true;
+    }
+
+    @Override
+    public Line addLine() {
+        return new MockLine();
+    }
+
+    @Override
+    public Line addLine(String lineCaption) {
+        return new MockLine();
+    }
+
+    @Override
+    public boolean removeLine(Line line) {
+        return false;
+    }
+
+    @Override
+    public boolean isAutoClear() {
+        return autoClear;
+    }
+
+    @Override
+    public void setAutoClear(boolean autoClear) {
+        this.autoClear = autoClear;
+    }
+
+    @Override
+    public int getMsTransmissionInterval() {
+        return msTransmissionInterval;
+    }
+
+    @Override
+    public void setMsTransmissionInterval(int msTransmissionInterval) {
+        this.msTransmissionInterval = msTransmissionInterval;
+    }
+
+    @Override
+    public String getItemSeparator() {
+        return itemSeparator;
+    }
+
+    @Override
+    public void setItemSeparator(String itemSeparator) {
+        this.itemSeparator = itemSeparator;
+    }
+
+    @Override
+    public String getCaptionValueSeparator() {
+        return captionValueSeparator;
+    }
+
+    @Override
+    public void setCaptionValueSeparator(String captionValueSeparator) {
+        this.captionValueSeparator = captionValueSeparator;
+    }
+
+    @Override
+    public Log log() {
+        return log;
+    }
+}
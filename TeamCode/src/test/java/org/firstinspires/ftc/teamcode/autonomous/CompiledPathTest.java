@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.autonomous;
+
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.HeadingControlledWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.PointTurnWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.math.MathUtil;
+import org.firstinspires.ftc.teamcode.common.math.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledPathTest {
+
+    @Test
+    void testClassifiesWaypoints() {
+        Subroutines.RepeatedSubroutine repeated = (robot, path) -> false;
+        CompiledPath path = new CompiledPath(Arrays.asList(
+                new Waypoint(0, 0, 8, Subroutines.ENABLE_INTAKE),
+                new HeadingControlledWaypoint(0, 30, 8, 0, repeated),
+                new PointTurnWaypoint(40, 30, 8, 1, 0.1),
+                new StopWaypoint(40, 30, 8, 1, 1)
+        ));
+
+        assertArrayEquals(new int[] {CompiledPath.NORMAL, CompiledPath.NORMAL,
+                CompiledPath.POINT_TURN, CompiledPath.STOP}, path.kinds);
+        assertSame(Subroutines.ENABLE_INTAKE, path.onceOff[0]);
+        assertSame(repeated, path.repeated[1]);
+        assertNull(path.onceOff[1]);
+        assertNull(path.meta[2]);
+
+        // Lookahead targets keep the waypoint's type and heading
+        assertTrue(path.lookaheads[3] instanceof StopWaypoint);
+        assertNotSame(path.points[3], path.lookaheads[3]);
+    }
+
+    @Test
+    void testSegmentGeometry() {
+        CompiledPath path = new CompiledPath(Arrays.asList(
+                new Waypoint(0, 0, 8),
+                new Waypoint(0, 30, 8),
+                new Waypoint(40, 60, 8),
+                new StopWaypoint(40, 60, 8, 0, 1) // No length
+        ));
+
+        assertArrayEquals(new double[] {0, 30, 80, 80}, path.arcLength);
+        assertEquals(80, path.totalLength());
+        assertEquals(55, path.distanceAlong(1, 0.5));
+        assertEquals(0, path.project(2, new Point(5, 5)));
+
+        // Projecting matches MathUtil
+        Point p = new Point(-7, 45);
+        Point out = new Point(0, 0);
+        double t = path.project(1, p);
+        assertEquals(MathUtil.projectOntoSegment(path.points[1], path.points[2], p), t);
+        assertEquals(MathUtil.nearestLinePoint(path.points[1], path.points[2], p, new Point(0, 0)),
+                path.pointAt(1, t, out));
+    }
+}
@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.autonomous;
+
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.VirtualSkystoneHardware;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurePursuitPathTest {
+
+    // A path whose first few waypoints are all on top of the robot, so they're reached at once
+    private static List<Waypoint> bunchedUp(List<String> ran, Subroutines.Subroutine interrupt) {
+        List<Waypoint> waypoints = new ArrayList<>();
+        waypoints.add(new Waypoint(0, 0, 8));
+        for (int i = 1; i <= 12; i++) {
+            String name = "w" + i;
+            waypoints.add(new Waypoint(0, 0, 8, i == 3 ? interrupt : (Subroutines.OnceOffSubroutine) r -> ran.add(name)));
+        }
+        waypoints.add(new StopWaypoint(60, 0, 8, 0, 1));
+        return waypoints;
+    }
+
+    @Test
+    void testInterruptThatFinishesKeepsAdvancing() {
+        List<String> ran = new ArrayList<>();
+        int[] cycles = {0};
+        Subroutines.ArrivalInterruptSubroutine interrupt = r -> ++cycles[0] >= 1;
+        PurePursuitPath path = new PurePursuitPath(new VirtualSkystoneHardware(new Pose(0, 0, 0)),
+                bunchedUp(ran, interrupt));
+
+        path.update();
+        // Done in a single tick, with every subroutine run once
+        assertEquals(1, cycles[0]);
+        assertEquals(PurePursuitPath.MAX_ADVANCES_PER_TICK, path.advancesThisTick);
+        assertEquals(Arrays.asList("w1", "w2", "w4", "w5", "w6", "w7", "w8"), ran);
+        assertFalse(path.interrupting);
+
+        path.update();
+        assertEquals(12, path.currPoint);
+        assertEquals(Arrays.asList("w1", "w2", "w4", "w5", "w6", "w7", "w8", "w9", "w10", "w11", "w12"), ran);
+    }
+
+    @Test
+    void testInterruptWaitsForNextTick() {
+        List<String> ran = new ArrayList<>();
+        int[] cycles = {0};
+        Subroutines.ArrivalInterruptSubroutine interrupt = r -> ++cycles[0] >= 3;
+        PurePursuitPath path = new PurePursuitPath(new VirtualSkystoneHardware(new Pose(0, 0, 0)),
+                bunchedUp(ran, interrupt));
+
+        path.update();
+        assertEquals(3, path.currPoint);
+        assertEquals(1, cycles[0]);
+        assertTrue(path.interrupting);
+
+        path.update();
+        assertEquals(2, cycles[0]);
+        assertEquals(3, path.currPoint);
+
+        path.update();
+        assertEquals(3, cycles[0]);
+        assertFalse(path.interrupting);
+        assertEquals(3 + PurePursuitPath.MAX_ADVANCES_PER_TICK, path.currPoint);
+    }
+}
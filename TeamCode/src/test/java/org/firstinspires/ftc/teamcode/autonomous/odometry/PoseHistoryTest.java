@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+import org.firstinspires.ftc.teamcode.common.math.TimePose;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoseHistoryTest {
+
+    @Test
+    void testLookbackAndWraparound() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 2, 3, 10);
+        assertEquals(1, history.size());
+        assertEquals(10, history.time(0));
+
+        for (int i = 2; i <= 10; i++) {
+            history.add(i, 2 * i, 3 * i, 10 * i);
+        }
+
+        // Only the four newest poses survive
+        assertEquals(4, history.size());
+        for (int age = 0; age < 4; age++) {
+            int i = 10 - age;
+            assertEquals(i, history.x(age));
+            assertEquals(2 * i, history.y(age));
+            assertEquals(3 * i, history.heading(age));
+            assertEquals(10 * i, history.time(age));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> history.x(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.x(-1));
+    }
+
+    @Test
+    void testVelocityAfterHistoryFills() {
+        TwoWheelTrackingLocalizer localizer = new TwoWheelTrackingLocalizer(0, 1);
+        int updates = localizer.prevPositions.capacity() * 3;
+        for (int i = 1; i <= updates; i++) {
+            localizer.virtualUpdate(new TimePose(i, -2 * i, 0, i * 10));
+        }
+        assertEquals(localizer.prevPositions.capacity(), localizer.prevPositions.size());
+        assertEquals(100, localizer.relVelocity().x, 1e-9);
+        assertEquals(-200, localizer.relVelocity().y, 1e-9);
+    }
+}
@@ -1,11 +1,21 @@
 package org.firstinspires.ftc.teamcode.autonomous.odometry;
 
+import com.google.gson.Gson;
+
+import org.apache.commons.math3.linear.DecompositionSolver;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.firstinspires.ftc.simulator.utils.AllocationCounter;
+import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
 import org.firstinspires.ftc.teamcode.common.math.TimePose;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.openftc.revextensions2.RevBulkData;
 
+import java.io.InputStreamReader;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TwoWheelTrackingLocalizerTest {
@@ -118,4 +128,58 @@ class TwoWheelTrackingLocalizerTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSolverMatchesLUDecomposition() {
+        double[][] spinValues = new Gson().fromJson(new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream("spinvalues.json")), double[][].class);
+
+        double parallelY = TwoWheelTrackingLocalizer.PARALLEL_Y_POS;
+        double lateralX = TwoWheelTrackingLocalizer.LATERAL_X_POS;
+        try {
+            // Try the real wheel positions and a spread of others
+            for (double offset = 0; offset < 6; offset += 0.7) {
+                TwoWheelTrackingLocalizer.PARALLEL_Y_POS = parallelY + offset;
+                TwoWheelTrackingLocalizer.LATERAL_X_POS = lateralX - offset;
+
+                DecompositionSolver solver = new LUDecomposition(TwoWheelTrackingLocalizer.wheelMatrix()).getSolver();
+                TwoWheelTrackingLocalizer localizer = getNewLocalizer();
+                Pose expected = new Pose(0, 0, 0);
+                double[] poseDelta = new double[3];
+
+                for (double[] delta : spinValues) {
+                    RealMatrix m = MatrixUtils.createRealMatrix(new double[][] {delta});
+                    RealMatrix raw = solver.solve(m.transpose());
+
+                    localizer.solve(delta, poseDelta);
+                    for (int i = 0; i < 3; i++) {
+                        assertEquals(Double.doubleToLongBits(raw.getEntry(i, 0)), Double.doubleToLongBits(poseDelta[i]));
+                    }
+
+                    expected = MathUtil.relativeOdometryUpdate(expected,
+                            new Pose(raw.getEntry(0, 0), raw.getEntry(1, 0), raw.getEntry(2, 0)));
+                    localizer.updateFromRelative(delta);
+                }
+                assertEquals(Double.doubleToLongBits(expected.x), Double.doubleToLongBits(localizer.x()));
+                assertEquals(Double.doubleToLongBits(expected.y), Double.doubleToLongBits(localizer.y()));
+                assertEquals(Double.doubleToLongBits(expected.heading), Double.doubleToLongBits(localizer.h()));
+            }
+        } finally {
+            TwoWheelTrackingLocalizer.PARALLEL_Y_POS = parallelY;
+            TwoWheelTrackingLocalizer.LATERAL_X_POS = lateralX;
+        }
+    }
+
+    @Test
+    void testSolveDoesNotAllocate() {
+        TwoWheelTrackingLocalizer localizer = getNewLocalizer();
+        double[] deltas = {0.01, -0.02, 0.001};
+        double[] poseDelta = new double[3];
+
+        long bytes = AllocationCounter.bytesAllocated(() -> {
+            deltas[0] += 1e-9;
+            localizer.solve(deltas, poseDelta);
+        }, 20000, 5000);
+        assertEquals(0, bytes);
+    }
+}
@@ -0,0 +1,78 @@
+package org.firstinspires.ftc.teamcode.autonomous.odometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityEstimatorTest {
+
+    // Drives at a constant velocity with jittery loop times, returning the final estimate
+    private VelocityEstimator drive(VelocityEstimator.Type type, int updates) {
+        Random random = new Random(8802);
+        PoseHistory history = new PoseHistory(64);
+        VelocityEstimator estimator = type.create();
+
+        long time = 1234567890123L;
+        for (int i = 0; i < updates; i++) {
+            time += 3000000 + random.nextInt(10000000); // 3 to 13 ms loops
+            double t = time / VelocityEstimator.NANOS_PER_SECOND;
+            history.add(30 * t, -12 * t, 0.5 * t, time);
+            estimator.update(history);
+        }
+        return estimator;
+    }
+
+    @Test
+    void testConstantVelocity() {
+        for (VelocityEstimator.Type type : VelocityEstimator.Type.values()) {
+            VelocityEstimator estimator = drive(type, 2000);
+            assertEquals(30, estimator.x(), 1e-3, type.name());
+            assertEquals(-12, estimator.y(), 1e-3, type.name());
+            assertEquals(0.5, estimator.heading(), 1e-3, type.name());
+        }
+    }
+
+    @Test
+    void testLeastSquaresMatchesDirectFit() {
+        Random random = new Random(42);
+        PoseHistory history = new PoseHistory(64);
+        LeastSquaresVelocity estimator = new LeastSquaresVelocity();
+
+        long time = 0;
+        for (int i = 0; i < 5000; i++) {
+            time += 1000000 + random.nextInt(20000000);
+            history.add(random.nextGaussian(), 0, 0, time);
+            estimator.update(history);
+
+            // Fit the window directly and compare
+            int n = Math.min(LeastSquaresVelocity.WINDOW, history.size());
+            double meanT = 0, meanX = 0;
+            for (int age = 0; age < n; age++) {
+                meanT += history.time(age) / VelocityEstimator.NANOS_PER_SECOND / n;
+                meanX += history.x(age) / n;
+            }
+            double covariance = 0, variance = 0;
+            for (int age = 0; age < n; age++) {
+                double dt = history.time(age) / VelocityEstimator.NANOS_PER_SECOND - meanT;
+                covariance += dt * (history.x(age) - meanX);
+                variance += dt * dt;
+            }
+            double expected = n < 2 ? 0 : covariance / variance;
+            assertEquals(expected, estimator.x(), 1e-6 * Math.max(1, Math.abs(expected)));
+        }
+    }
+
+    @Test
+    void testLocalizerUsesConfiguredEstimator() {
+        VelocityEstimator.Type type = TwoWheelTrackingLocalizer.VELOCITY_ESTIMATOR;
+        TwoWheelTrackingLocalizer.VELOCITY_ESTIMATOR = VelocityEstimator.Type.KALMAN;
+        try {
+            TwoWheelTrackingLocalizer localizer = new TwoWheelTrackingLocalizer(0, 1);
+            assertTrue(localizer.velocityEstimator instanceof KalmanVelocity);
+        } finally {
+            TwoWheelTrackingLocalizer.VELOCITY_ESTIMATOR = type;
+        }
+    }
+}
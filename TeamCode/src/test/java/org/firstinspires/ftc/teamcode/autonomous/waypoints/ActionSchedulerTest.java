@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.autonomous.waypoints;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionSchedulerTest {
+
+    @Test
+    void testRunsDueActionsInOrder() {
+        ActionScheduler scheduler = new ActionScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.add(new DelayedSubroutine(300, r -> ran.add("c"), 0));
+        scheduler.add(new DelayedSubroutine(100, r -> ran.add("a"), 0));
+        scheduler.add(new DelayedSubroutine(200, r -> ran.add("b1"), 0));
+        scheduler.add(new DelayedSubroutine(200, r -> ran.add("b2"), 0));
+
+        scheduler.runDue(null, 100); // Only runs actions due strictly before now
+        assertTrue(ran.isEmpty());
+        scheduler.runDue(null, 201);
+        assertEquals(Arrays.asList("a", "b1", "b2"), ran);
+        assertEquals(1, scheduler.size());
+        scheduler.runDue(null, 1000);
+        assertEquals(Arrays.asList("a", "b1", "b2", "c"), ran);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    void testMatchesSortedOrder() {
+        Random random = new Random(8802);
+        ActionScheduler scheduler = new ActionScheduler();
+        List<Long> ran = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long time = random.nextInt(1000);
+            expected.add(time);
+            scheduler.add(new DelayedSubroutine(time, r -> ran.add(time), 0));
+        }
+        expected.sort(Long::compare);
+
+        for (long now = 0; now < 1000 + 7; now += 7) {
+            scheduler.runDue(null, now);
+        }
+        assertEquals(expected, ran);
+    }
+
+    @Test
+    void testTags() {
+        ActionScheduler scheduler = new ActionScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.add(new DelayedSubroutine(100, r -> ran.add("deposit"), 0, "DEPOSIT"));
+        scheduler.add(new DelayedSubroutine(200, r -> ran.add("end"), 0, "END"));
+        assertTrue(scheduler.hasTag("DEPOSIT"));
+        assertFalse(scheduler.hasTag("OTHER"));
+
+        scheduler.cancel("DEPOSIT");
+        assertFalse(scheduler.hasTag("DEPOSIT"));
+        // Adding the tag again after a cancel isn't affected by it
+        scheduler.add(new DelayedSubroutine(150, r -> ran.add("again"), 0, "DEPOSIT"));
+        assertTrue(scheduler.hasTag("DEPOSIT"));
+
+        scheduler.runDue(null, 160);
+        assertEquals(Arrays.asList("again"), ran);
+        assertFalse(scheduler.hasTag("DEPOSIT"));
+        assertTrue(scheduler.hasTag("END"));
+
+        scheduler.runDue(null, 300);
+        assertFalse(scheduler.hasTag("END"));
+        assertEquals(Arrays.asList("again", "end"), ran);
+    }
+
+    @Test
+    void testActionsCanScheduleActions() {
+        ActionScheduler scheduler = new ActionScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.add(new DelayedSubroutine(100, r -> {
+            ran.add("first");
+            // Already due, but has to wait for the next loop
+            scheduler.add(new DelayedSubroutine(-50, r2 -> ran.add("nested"), 100, "NESTED"));
+        }, 0));
+        scheduler.add(new DelayedSubroutine(100, r -> ran.add("second"), 0));
+
+        scheduler.runDue(null, 101);
+        assertEquals(Arrays.asList("first", "second"), ran);
+        assertTrue(scheduler.hasTag("NESTED"));
+
+        scheduler.runDue(null, 102);
+        assertEquals(Arrays.asList("first", "second", "nested"), ran);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    void testActionsCanClear() {
+        ActionScheduler scheduler = new ActionScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.add(new DelayedSubroutine(100, r -> {
+            scheduler.clear();
+            scheduler.add(new DelayedSubroutine(100, r2 -> ran.add("retry"), 100));
+        }, 0));
+        scheduler.add(new DelayedSubroutine(150, r -> ran.add("cleared"), 0));
+
+        scheduler.runDue(null, 1000);
+        assertTrue(ran.isEmpty());
+        scheduler.runDue(null, 1000);
+        assertEquals(Arrays.asList("retry"), ran);
+    }
+}
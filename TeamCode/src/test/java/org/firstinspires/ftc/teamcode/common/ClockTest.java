@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import org.firstinspires.ftc.simulator.VirtualClock;
+import org.firstinspires.ftc.teamcode.robot.mecanum.MecanumPowers;
+import org.firstinspires.ftc.teamcode.robot.mecanum.VirtualSkystoneHardware;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockTest {
+
+    @Test
+    void testTimerRunsOnClock() {
+        VirtualClock clock = new VirtualClock(5000000000L);
+        ElapsedTime timer = clock.timer();
+        assertEquals(0, timer.nanoseconds());
+
+        clock.advance(0.25);
+        assertEquals(250, timer.milliseconds(), 1e-9);
+        assertEquals(5250, clock.millis());
+
+        timer.reset();
+        clock.advance(1);
+        assertEquals(1, timer.seconds(), 1e-9);
+    }
+
+    @Test
+    void testVirtualRobotOnlyMovesWhenElapsed() throws InterruptedException {
+        VirtualSkystoneHardware robot = new VirtualSkystoneHardware();
+        long start = robot.localizer.timeNanos();
+        Thread.sleep(20);
+        assertEquals(start, robot.localizer.timeNanos());
+        assertEquals(start / 1000000, robot.clock.millis());
+
+        robot.setPowers(new MecanumPowers(0, 0, 0, 0));
+        robot.elapse(0.01);
+        assertEquals(start + 10000000, robot.localizer.timeNanos());
+    }
+}
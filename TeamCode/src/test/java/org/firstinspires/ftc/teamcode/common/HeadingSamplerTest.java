@@ -0,0 +1,137 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import com.qualcomm.hardware.bosch.BNO055IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadingSamplerTest {
+
+    private static BNO055IMU mockIMU(double[] heading) {
+        BNO055IMU imu = Mockito.mock(BNO055IMU.class);
+        Mockito.when(imu.getAngularOrientation()).thenAnswer(invocation -> {
+            Orientation o = new Orientation();
+            o.firstAngle = (float) heading[0];
+            return o;
+        });
+        return imu;
+    }
+
+    private static void pollUntil(HeadingSampler sampler, double heading) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!(sampler.poll() && sampler.sampleHeading == heading)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Sampler never produced " + heading);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testPublishesLatestHeading() throws InterruptedException {
+        double[] heading = {0.5};
+        HeadingSampler sampler = new HeadingSampler(mockIMU(heading));
+        assertFalse(sampler.poll());
+
+        sampler.start();
+        pollUntil(sampler, 0.5);
+        long firstSample = sampler.sampleNanos;
+
+        heading[0] = -1.25;
+        pollUntil(sampler, -1.25);
+        assertTrue(sampler.sampleNanos > firstSample);
+
+        sampler.stop();
+        assertFalse(sampler.running());
+    }
+
+    @Test
+    void testStopsWhenNotPolled() throws InterruptedException {
+        double idleTimeout = HeadingSampler.IDLE_TIMEOUT_MS;
+        HeadingSampler.IDLE_TIMEOUT_MS = 20;
+        try {
+            HeadingSampler sampler = new HeadingSampler(mockIMU(new double[] {0}));
+            sampler.start();
+            Thread.sleep(200);
+            assertFalse(sampler.running());
+
+            // And it comes back when asked
+            sampler.start();
+            pollUntil(sampler, 0);
+            sampler.stop();
+        } finally {
+            HeadingSampler.IDLE_TIMEOUT_MS = idleTimeout;
+        }
+    }
+
+    @Test
+    void testBacksOffAfterFailing() throws InterruptedException {
+        BNO055IMU imu = Mockito.mock(BNO055IMU.class);
+        Mockito.when(imu.getAngularOrientation()).thenThrow(new RuntimeException("Hub gone"));
+        HeadingSampler sampler = new HeadingSampler(imu);
+
+        sampler.start();
+        long deadline = System.currentTimeMillis() + 2000;
+        // The thread marks itself failed on its way out
+        while (!sampler.failed() || sampler.running()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Sampler never failed");
+            Thread.sleep(1);
+        }
+
+        // Starting again right away doesn't spin up another thread
+        for (int i = 0; i < 10; i++) {
+            sampler.start();
+            assertFalse(sampler.running());
+        }
+        Mockito.verify(imu, Mockito.times(1)).getAngularOrientation();
+
+        // Stopping clears the failure, so we're allowed to try again
+        sampler.stop();
+        assertFalse(sampler.failed());
+        sampler.start();
+        while (!sampler.failed()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Sampler never failed again");
+            Thread.sleep(1);
+        }
+        Mockito.verify(imu, Mockito.times(2)).getAngularOrientation();
+    }
+
+    @Test
+    void testNoOverlapWithStoppingSampler() throws InterruptedException {
+        double stopWait = HeadingSampler.STOP_WAIT_MS;
+        HeadingSampler.STOP_WAIT_MS = 1;
+        Object inRead = new Object();
+        int[] readers = {0};
+        int[] maxReaders = {0};
+        BNO055IMU imu = Mockito.mock(BNO055IMU.class);
+        Mockito.when(imu.getAngularOrientation()).thenAnswer(invocation -> {
+            synchronized (inRead) {
+                maxReaders[0] = Math.max(maxReaders[0], ++readers[0]);
+            }
+            // A slow read that ignores interrupts, like a stuck I2C transaction
+            long end = System.nanoTime() + 50 * 1000000L;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+            synchronized (inRead) {
+                readers[0]--;
+            }
+            return new Orientation();
+        });
+        try {
+            HeadingSampler sampler = new HeadingSampler(imu);
+            for (int i = 0; i < 50; i++) {
+                sampler.start();
+                Thread.sleep(2);
+                sampler.stop();
+            }
+            Thread.sleep(100);
+            synchronized (inRead) {
+                assertEquals(1, maxReaders[0]);
+            }
+        } finally {
+            HeadingSampler.STOP_WAIT_MS = stopWait;
+        }
+    }
+}
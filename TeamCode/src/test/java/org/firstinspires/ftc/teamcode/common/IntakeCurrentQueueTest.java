@@ -4,6 +4,10 @@ import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrent;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrentQueue;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class IntakeCurrentQueueTest {
@@ -33,4 +37,49 @@ class IntakeCurrentQueueTest {
         // Assert no errors when we do things without the timestamp argument
         q.add(new IntakeCurrent(0, 0));
     }
+
+    @Test
+    void testMatchesFullScan() {
+        double maxLength = IntakeCurrentQueue.MAX_LENGTH;
+        double stallMs = IntakeCurrentQueue.STALL_DETECT_MS;
+        IntakeCurrentQueue.MAX_LENGTH = 20; // Small enough that the window can outgrow the buffer
+        try {
+            Random random = new Random(8802);
+            IntakeCurrentQueue q = new IntakeCurrentQueue();
+            List<long[]> samples = new ArrayList<>(); // left, right, timestamp
+            long time = 0;
+            for (int i = 0; i < 20000; i++) {
+                if (i % 2500 == 0) {
+                    IntakeCurrentQueue.STALL_DETECT_MS = 50 + random.nextInt(400);
+                }
+                time += random.nextInt(40);
+                // Mostly stalled, so there are plenty of windows that make it all the way through
+                long left = random.nextInt(10) < 8 ? 12000 : random.nextInt(12000);
+                long right = random.nextInt(10) < 8 ? 12000 : random.nextInt(12000);
+                q.add(new IntakeCurrent(left, right), time);
+                samples.add(new long[]{left, right, time});
+
+                assertEquals(stalledByScan(samples, 20), q.stalled(), "Sample " + i);
+            }
+        } finally {
+            IntakeCurrentQueue.MAX_LENGTH = maxLength;
+            IntakeCurrentQueue.STALL_DETECT_MS = stallMs;
+        }
+    }
+
+    // How stalled() used to work, walking back through the buffer from the newest sample
+    private static boolean stalledByScan(List<long[]> samples, int capacity) {
+        int size = Math.min(samples.size(), capacity);
+        long minTime = samples.get(samples.size() - 1)[2] - (long) IntakeCurrentQueue.STALL_DETECT_MS;
+        for (int i = 0; i < size; i++) {
+            long[] sample = samples.get(samples.size() - 1 - i);
+            if (sample[2] < minTime) {
+                return true;
+            }
+            if (sample[0] < IntakeCurrentQueue.STALL_DETECT_MAMPS && sample[1] < IntakeCurrentQueue.STALL_DETECT_MAMPS) {
+                return false;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
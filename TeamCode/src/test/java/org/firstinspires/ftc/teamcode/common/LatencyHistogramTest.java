@@ -0,0 +1,60 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        // Buckets are contiguous and each one's top is the value just below the next bucket
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            long top = LatencyHistogram.highestInBucket(i);
+            assertEquals(i, LatencyHistogram.bucket(top));
+            assertEquals(i + 1, LatencyHistogram.bucket(top + 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        Random random = new Random(8802);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal around 5 ms, like loop times
+            values[i] = (long) (5000000 * Math.exp(random.nextGaussian()));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[values.length - 1], histogram.max());
+        for (double p : new double[]{0.5, 0.9, 0.99, 1}) {
+            long exact = values[(int) Math.ceil(p * values.length) - 1];
+            long reported = histogram.percentile(p);
+            assertTrue(reported >= exact, p + ": " + reported + " < " + exact);
+            assertTrue(reported <= exact * (1 + 1 / 16.0), p + ": " + reported + " vs " + exact);
+        }
+        assertEquals(histogram.max(), histogram.percentile(1));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+
+    @Test
+    void testSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.percentile(0.5));
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(20, histogram.percentile(1));
+    }
+}
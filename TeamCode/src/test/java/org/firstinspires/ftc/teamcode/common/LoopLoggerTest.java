@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoopLoggerTest {
+
+    @Test
+    void testLevelsAndOrdering() {
+        LoopLogger.Level level = LoopLogger.LEVEL;
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        LoopLogger.setSink(lines::add);
+        try {
+            LoopLogger.LEVEL = LoopLogger.Level.INFO;
+            assertFalse(LoopLogger.enabled(LoopLogger.Level.DEBUG));
+            assertTrue(LoopLogger.enabled(LoopLogger.Level.WARN));
+
+            LoopLogger.debug("Test", "Hidden %d", 1);
+            LoopLogger.info("Test", "Shown %d", 2);
+            LoopLogger.error("Test", "Also shown");
+            assertTrue(LoopLogger.flush(1000));
+
+            assertEquals(2, lines.size());
+            assertEquals("I/Test: Shown 2", lines.get(0));
+            assertEquals("E/Test: Also shown", lines.get(1));
+        } finally {
+            LoopLogger.LEVEL = level;
+            LoopLogger.setSink(LoopLogger.ROBOT_LOG);
+        }
+    }
+
+    @Test
+    void testDropsWhenFull() throws InterruptedException {
+        int capacity = LoopLogger.QUEUE_CAPACITY;
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        LoopLogger.setSink(line -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lines.add(line);
+        });
+        try {
+            LoopLogger.QUEUE_CAPACITY = 4;
+            int dropped = LoopLogger.dropped();
+
+            // The writer blocks on the first record, so only the queue's worth are kept
+            for (int i = 0; i < 10; i++) {
+                LoopLogger.error("Test", "Record %d", i);
+            }
+            assertEquals(dropped + 6, LoopLogger.dropped());
+
+            release.countDown();
+            assertTrue(LoopLogger.flush(1000));
+            assertEquals(4, lines.size());
+            assertEquals("E/Test: Record 0", lines.get(0));
+        } finally {
+            LoopLogger.QUEUE_CAPACITY = capacity;
+            LoopLogger.setSink(LoopLogger.ROBOT_LOG);
+        }
+    }
+
+    @Test
+    void testBadFormatStillQueues() {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        LoopLogger.setSink(lines::add);
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        try {
+            LoopLogger.error("Test", "Bad %d", "not a number");
+            LoopLogger.error("Test", "Broken %s", broken);
+            LoopLogger.error("Test", "After");
+            assertTrue(LoopLogger.flush(1000));
+
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(0).startsWith("E/Test: Bad %d (couldn't format: "), lines.get(0));
+            assertTrue(lines.get(1).startsWith("E/Test: Broken %s (couldn't format: "), lines.get(1));
+            assertEquals("E/Test: After", lines.get(2));
+        } finally {
+            LoopLogger.setSink(LoopLogger.ROBOT_LOG);
+        }
+    }
+}
@@ -26,4 +26,12 @@ class PointTest {
         Point p3 = new Point(-2, 0);
         assertEquals(p3.rotated(Math.PI / 4), new Point(-Math.sqrt(2), -Math.sqrt(2)));
     }
+
+    @Test
+    void rotatedInto() {
+        Point p = new Point(1, 1);
+        assertSame(p, p.rotated(Math.PI / 2, p));
+        assertEquals(new Point(-1, 1), p);
+        assertEquals(5, new Point(0, 0).distance(new Point(3, 4)));
+    }
 }
\ No newline at end of file
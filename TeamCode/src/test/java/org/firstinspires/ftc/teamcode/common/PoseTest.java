@@ -58,4 +58,31 @@ class PoseTest {
         p1.clampAbs(new Pose(5, 5, 5));
         assertEquals(new Pose(5, -5, -2), p1);
     }
+
+    @Test
+    void inPlace() {
+        Pose a = new Pose(3, -4, 0.5);
+        Pose b = new Pose(-2, 8, 2);
+
+        assertEquals(a.add(b), a.clone().addInPlace(b));
+        assertEquals(a.minus(b), a.clone().minusInPlace(b));
+        assertEquals(a.multiply(b), a.clone().multiplyInPlace(b));
+        assertEquals(a.divideBy(b), a.clone().divideByInPlace(b));
+        assertEquals(a.scale(-1.5), a.clone().scaleInPlace(-1.5));
+        // Copies leave the original alone
+        assertEquals(new Pose(3, -4, 0.5), a);
+    }
+
+    @Test
+    void outputCanBeAnInput() {
+        Pose a = new Pose(1, 2, 3);
+        Pose b = new Pose(10, 20, 30);
+        assertSame(b, a.add(b, b));
+        assertEquals(new Pose(11, 22, 33), b);
+        assertEquals(new Pose(1, 2, 3), a);
+
+        Pose out = new Pose(0, 0, 0);
+        assertSame(out, a.minus(b, out));
+        assertEquals(new Pose(-10, -20, -30), out);
+    }
 }
\ No newline at end of file
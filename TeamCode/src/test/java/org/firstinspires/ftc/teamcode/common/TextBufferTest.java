@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextBufferTest {
+
+    @Test
+    void testMatchesStringFormat() {
+        TextBuffer buffer = new TextBuffer(32);
+        double[] values = {0, -0.0, 1, -1, 0.04, -0.04, 0.05, 0.96, -0.96, 12.345, -180, 359.95, 1e9,
+                1000 / 3.0, Math.PI, -Math.E, Double.NaN, Double.POSITIVE_INFINITY};
+        for (double v : values) {
+            assertEquals(String.format("%.1f", v), buffer.set(v, 1).toString());
+            assertEquals(String.format("%.2f", v), buffer.set(v, 2).toString());
+            assertEquals(String.format("%.0f", v), buffer.set(v, 0).toString());
+        }
+    }
+
+    @Test
+    void testIntegersAndChars() {
+        TextBuffer buffer = new TextBuffer(32);
+        assertEquals("0", buffer.set(0).toString());
+        assertEquals("-123456", buffer.set(-123456).toString());
+        assertEquals(Long.toString(Long.MIN_VALUE), buffer.set(Long.MIN_VALUE).toString());
+
+        buffer.clear();
+        for (int i = 0; i < 4; i++) {
+            buffer.append(i % 2 == 0 ? '1' : '0').append(' ');
+        }
+        assertEquals("1 0 1 0 ", buffer.toString());
+        assertEquals(8, buffer.length());
+    }
+
+    @Test
+    void testTruncatesInsteadOfThrowing() {
+        TextBuffer buffer = new TextBuffer(4);
+        assertEquals("1234", buffer.set(123456789).toString());
+    }
+}
@@ -0,0 +1,50 @@
+package org.firstinspires.ftc.teamcode.common.math;
+
+import org.firstinspires.ftc.simulator.utils.AllocationCounter;
+import org.firstinspires.ftc.teamcode.autonomous.controllers.MecanumPurePursuitController;
+import org.firstinspires.ftc.teamcode.autonomous.odometry.TwoWheelTrackingLocalizer;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.HeadingControlledWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.robot.mecanum.MecanumPowers;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeometryAllocationTest {
+    private static final int WARMUP = 20000;
+    private static final int RUNS = 5000;
+
+    @Test
+    void testInPlaceOdometryUpdateDoesNotAllocate() {
+        Pose delta = new Pose(0.01, -0.002, 0.001);
+        Pose pose = new Pose(0, 0, 0);
+
+        assertEquals(0, AllocationCounter.bytesAllocated(() ->
+                MathUtil.relativeOdometryUpdate(pose, delta, pose), WARMUP, RUNS));
+    }
+
+    @Test
+    void testLocalizerUpdateDoesNotAllocate() {
+        TwoWheelTrackingLocalizer localizer = new TwoWheelTrackingLocalizer(0, 1);
+        double[] deltas = {0.01, -0.02, 0.001};
+        long[] time = {0};
+
+        assertEquals(0, AllocationCounter.bytesAllocated(() -> {
+            time[0] += 10000000;
+            localizer.updateFromRelative(deltas, time[0]);
+        }, WARMUP, RUNS));
+    }
+
+    @Test
+    void testInPlaceGoToPositionDoesNotAllocate() {
+        Pose robot = new Pose(10, 20, 0.3);
+        Pose velocity = new Pose(5, 1, 0.1);
+        Waypoint target = new HeadingControlledWaypoint(40, 30, 8, Math.PI / 2);
+        MecanumPowers powers = new MecanumPowers(0, 0, 0, 0);
+
+        assertEquals(0, AllocationCounter.bytesAllocated(() -> {
+            robot.x += 1e-9;
+            MecanumPurePursuitController.goToPosition(robot, velocity, target, null, powers);
+        }, WARMUP, RUNS));
+    }
+}
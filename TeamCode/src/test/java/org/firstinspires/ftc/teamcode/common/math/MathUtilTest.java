@@ -3,6 +3,9 @@ package org.firstinspires.ftc.teamcode.common.math;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -46,6 +49,16 @@ class MathUtilTest {
 
     @Test
     void relativeOdometryUpdate() {
+        // Driving forwards while turning a quarter circle ends up on the circle's edge
+        Pose start = new Pose(1, 2, Math.PI / 2);
+        Pose delta = new Pose(Math.PI / 2, 0, Math.PI / 2);
+        Pose expected = new Pose(0, 3, Math.PI);
+        assertEquals(expected, MathUtil.relativeOdometryUpdate(start, delta));
+
+        // Writing into the starting pose gives the same answer
+        Pose out = MathUtil.relativeOdometryUpdate(start, delta, start);
+        assertSame(start, out);
+        assertEquals(expected, start);
     }
 
     @Test
@@ -67,6 +80,123 @@ class MathUtilTest {
 
     }
 
+    @Test
+    void lineSegmentCircleIntersectionMatchesLists() {
+        Random random = new Random(8802);
+        Point out = new Point(0, 0);
+        int mismatches = 0;
+        String firstMismatch = null;
+
+        for (int i = 0; i < 2000000; i++) {
+            Point ul1 = randomPoint(random);
+            Point ul2 = randomPoint(random);
+            Point o;
+            double radius;
+            switch (i % 4) {
+                case 0: // Circle around the end, like undershooting a stop
+                    o = ul2;
+                    radius = random.nextDouble() * 20;
+                    break;
+                case 1: // Just about tangent
+                    o = randomPoint(random);
+                    Point nearest = new Line(ul1, ul2).nearestLinePoint(o);
+                    radius = o.distance(nearest) + (random.nextDouble() - 0.5) * 1e-5;
+                    break;
+                case 2: // Both ends the same
+                    ul2 = ul1.clone();
+                    o = randomPoint(random);
+                    radius = random.nextDouble() * 100;
+                    break;
+                default:
+                    o = randomPoint(random);
+                    radius = random.nextDouble() * 100;
+            }
+
+            Point expected = listIntersection(ul1, ul2, o, radius);
+            out.set(Double.NaN, Double.NaN);
+            int found = MathUtil.lineSegmentCircleIntersection(ul1, ul2, o, radius, out);
+            boolean same = expected == null ? found == MathUtil.NO_INTERSECTION :
+                    found != MathUtil.NO_INTERSECTION &&
+                            Double.compare(expected.x, out.x) == 0 && Double.compare(expected.y, out.y) == 0;
+            if (!same && mismatches++ == 0) {
+                firstMismatch = String.format("%s %s %s %s: expected %s, got %d %s",
+                        ul1, ul2, o, radius, expected, found, out);
+            }
+        }
+        assertEquals(0, mismatches, firstMismatch);
+    }
+
+    @Test
+    void nearestLinePoint() {
+        Point out = new Point(0, 0);
+
+        // Vertical and horizontal segments need no special cases
+        assertEquals(new Point(-50, 5), MathUtil.nearestLinePoint(
+                new Point(-50, -50), new Point(-50, 50), new Point(5, 5), out));
+        assertEquals(new Point(5, 3), MathUtil.nearestLinePoint(
+                new Point(0, 3), new Point(-1, 3), new Point(5, 5), out));
+
+        // Off the ends of the segment
+        assertEquals(-1, MathUtil.projectOntoSegment(new Point(0, 0), new Point(2, 2), new Point(-2, -2)));
+        assertEquals(1.5, MathUtil.projectOntoSegment(new Point(0, 0), new Point(2, 2), new Point(3, 3)));
+
+        // Segments with no length project onto their one point
+        assertEquals(new Point(1, 1), MathUtil.nearestLinePoint(
+                new Point(1, 1), new Point(1, 1), new Point(5, 5), out));
+
+        // Agrees with Line everywhere Line works
+        Random random = new Random(8802);
+        for (int i = 0; i < 100000; i++) {
+            Point a = randomPoint(random);
+            Point b = randomPoint(random);
+            Point p = randomPoint(random);
+            Point expected = new Line(a, b).nearestLinePoint(p);
+            MathUtil.nearestLinePoint(a, b, p, out);
+            assertEquals(expected.x, out.x, 1e-9);
+            assertEquals(expected.y, out.y, 1e-9);
+        }
+    }
+
+    private static Point randomPoint(Random random) {
+        return new Point((random.nextDouble() - 0.5) * 200, (random.nextDouble() - 0.5) * 200);
+    }
+
+    // The original list based version, kept to check the primitive one against
+    private static Point listIntersection(Point ul1, Point ul2, Point o, double radius) {
+        Point l1 = new Point(ul1.x - o.x, ul1.y - o.y);
+        Point l2 = new Point(ul2.x - o.x, ul2.y - o.y);
+
+        double d_x = l2.x - l1.x;
+        double d_y = l2.y - l1.y;
+        double d_r = Math.hypot(d_x, d_y);
+        double determinant = l1.x * l2.y - l2.x * l1.y;
+        double discriminant = Math.pow(radius, 2) * Math.pow(d_r, 2) - Math.pow(determinant, 2);
+
+        List<Point> offsets = new LinkedList<>();
+        if (MathUtil.approxEquals(discriminant, 0)) {
+            offsets.add(new Point(0, 0));
+        } else if (discriminant > 0) {
+            double x_determinant = (d_y < 0 ? -1 : 1) * d_x * Math.sqrt(discriminant);
+            double y_determinant = Math.abs(d_y) * Math.sqrt(discriminant);
+            offsets.add(new Point(x_determinant, y_determinant));
+            offsets.add(new Point(-x_determinant, -y_determinant));
+        }
+
+        List<Point> intersections = new LinkedList<>();
+        for (Point offset : offsets) {
+            intersections.add(new Point (
+                    (determinant * d_y + offset.x) / Math.pow(d_r, 2) + o.x,
+                    (-determinant * d_x + offset.y) / Math.pow(d_r, 2) + o.y
+            ));
+        }
+
+        if (intersections.size() == 2 &&
+                (intersections.get(0).minus(ul2).radius() > intersections.get(1).minus(ul2).radius())) {
+            intersections.add(intersections.remove(0));
+        }
+        return intersections.size() > 0 ? intersections.get(0) : null;
+    }
+
     @Test
     void powRetainingSign() {
         assertEquals(4, MathUtil.powRetainingSign(2, 2));
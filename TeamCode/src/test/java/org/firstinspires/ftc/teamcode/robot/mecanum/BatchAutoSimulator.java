@@ -0,0 +1,202 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.simulator.SimulatedOpModeFactory;
+import org.firstinspires.ftc.teamcode.autonomous.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.HeadingControlledWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Subroutines;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.SimulatableMecanumOpMode;
+import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
+import org.firstinspires.ftc.teamcode.common.math.MathUtil;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.PurePursuitAuto;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.PurePursuitAutoRed;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.TestPurePursuitAuto;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs pure pursuit autonomous op modes on virtual robots as fast as the code allows, rather than
+ * in real time like RealTimeOpModeRunner. Every loop() is followed by one simulated loop period,
+ * and the path and its subroutines time themselves off the virtual robot, so nothing ever sleeps
+ * and a whole 30 second auto takes milliseconds.
+ *
+ * The field is empty as far as the robot's sensors can tell: the block detectors never see
+ * anything, so jolts run until they give up and grabs never find a doubled block.
+ *
+ * Runs can be made on several threads at once, see MonteCarloSweep.
+ */
+public class BatchAutoSimulator {
+    public static int NOTHING_SEEN_MV = 3300; // What the block detectors read with no block there
+
+    public double loopSecs = 0.01;
+    public double timeLimitSecs = 30;
+
+    // Names for the shared subroutines in Subroutines, which are lambdas and so have no useful class name
+    private static Map<Object, String> subroutineNames;
+
+    public static class Event {
+        public double secs; // When we arrived at the waypoint
+        public int waypoint;
+        public String subroutine; // Null if the waypoint doesn't have one
+        public double doneSecs = -1; // When an arrival interrupt released the path
+        public double positionError; // How far the robot was from the waypoint when the path moved on
+
+        @Override
+        public String toString() {
+            String s = String.format(Locale.US, "%6.2f s  #%-3d %s", secs, waypoint,
+                    subroutine == null ? "-" : subroutine);
+            return doneSecs < 0 ? s : s + String.format(Locale.US, " (until %.2f s)", doneSecs);
+        }
+    }
+
+    public static class Run {
+        public Class opMode;
+        public SkystoneState skystone;
+        public boolean finished;
+        public double completionSecs; // Simulated, the time limit if we didn't finish
+        public int loops;
+        public long wallNanos;
+
+        public List<Waypoint> waypoints;
+        public int lastWaypoint; // The last one we got to, the next one is where we got stuck if we didn't finish
+        public Pose finalPose;
+        public double finalPositionError; // From the last waypoint
+        public double finalHeadingError;
+        public List<Event> timeline = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %s: %s in %.2f s, %.2f in / %.3f rad off, %d loops, %.1f ms",
+                    opMode.getSimpleName(), skystone, finished ? "finished" : "DID NOT FINISH",
+                    completionSecs, finalPositionError, finalHeadingError, loops, wallNanos / 1e6);
+        }
+
+        public String timelineString() {
+            StringBuilder s = new StringBuilder();
+            for (Event e : timeline) {
+                s.append(e).append('\n');
+            }
+            return s.toString();
+        }
+    }
+
+    /**
+     * Runs each op mode once for every skystone position.
+     */
+    public List<Run> runAll(Class... opModes) {
+        List<Run> runs = new ArrayList<>();
+        for (Class opMode : opModes) {
+            for (SkystoneState skystone : SkystoneState.values()) {
+                runs.add(run(opMode, skystone));
+            }
+        }
+        return runs;
+    }
+
+    public Run run(Class opMode, SkystoneState skystone) {
+        return run(opMode, skystone, VirtualSkystoneHardware::new);
+    }
+
+    /**
+     * @param robots builds the virtual robot from the op mode's start position, so its physics can
+     *               be changed or the start position moved
+     */
+    public Run run(Class opMode, SkystoneState skystone, Function<Pose, VirtualSkystoneHardware> robots) {
+        long start = System.nanoTime();
+        Run run = new Run();
+        run.opMode = opMode;
+        run.skystone = skystone;
+
+        SimulatedOpModeFactory simOpMode = new SimulatedOpModeFactory(opMode, robots);
+        simOpMode.skystone = skystone;
+        VirtualSkystoneHardware robot = simOpMode.robot;
+        robot.dataGen.analogInputs[SkystoneHardware.TRAY_DETECTOR_PORT] = NOTHING_SEEN_MV;
+        robot.dataGen.analogInputs[SkystoneHardware.CLAWS_DETECTOR_PORT] = NOTHING_SEEN_MV;
+        // The autos stash the skystone position in a static while they build their paths
+        synchronized (BatchAutoSimulator.class) {
+            simOpMode.opMode.start();
+        }
+
+        PurePursuitPath path = path(simOpMode.opMode);
+        int lastPoint = path.currPoint;
+        Event interrupt = null;
+        while (!simOpMode.stopRequested && robot.time() < timeLimitSecs) {
+            double now = robot.time();
+            simOpMode.opMode.loop();
+            Pose pose = robot.pose();
+            robot.elapse(loopSecs);
+            run.loops++;
+
+            // Several waypoints can be passed in one loop, and meta subroutines can skip ahead
+            if (interrupt != null && (!path.interrupting || path.currPoint != lastPoint)) {
+                interrupt.doneSecs = now;
+                interrupt = null;
+            }
+            for (int i = lastPoint + 1; i <= path.currPoint; i++) {
+                Event e = new Event();
+                e.secs = now;
+                e.waypoint = i;
+                e.subroutine = name(path.waypoints.get(i).action);
+                e.positionError = pose.distance(path.waypoints.get(i));
+                run.timeline.add(e);
+            }
+            if (path.currPoint != lastPoint && path.interrupting) {
+                interrupt = run.timeline.get(run.timeline.size() - 1);
+            }
+            lastPoint = path.currPoint;
+        }
+
+        run.finished = path.finished();
+        run.waypoints = path.waypoints;
+        run.lastWaypoint = path.currPoint;
+        run.completionSecs = robot.time();
+        run.finalPose = robot.pose();
+        Waypoint target = path.waypoints.get(path.waypoints.size() - 1);
+        run.finalPositionError = run.finalPose.distance(target);
+        if (target instanceof HeadingControlledWaypoint) {
+            run.finalHeadingError = Math.abs(MathUtil.angleWrap(
+                    ((HeadingControlledWaypoint) target).targetHeading - run.finalPose.heading));
+        }
+        run.wallNanos = System.nanoTime() - start;
+        return run;
+    }
+
+    private static PurePursuitPath path(SimulatableMecanumOpMode opMode) {
+        if (opMode instanceof PurePursuitAuto) {
+            return ((PurePursuitAuto) opMode).followPath;
+        } else if (opMode instanceof PurePursuitAutoRed) {
+            return ((PurePursuitAutoRed) opMode).followPath;
+        } else if (opMode instanceof TestPurePursuitAuto) {
+            return ((TestPurePursuitAuto) opMode).followPath;
+        }
+        throw new IllegalArgumentException(opMode.getClass().getName() + " doesn't follow a pure pursuit path");
+    }
+
+    private static synchronized String name(Subroutines.Subroutine action) {
+        if (action == null) {
+            return null;
+        }
+        if (subroutineNames == null) {
+            subroutineNames = new IdentityHashMap<>();
+            for (Field f : Subroutines.class.getFields()) {
+                if (Modifier.isStatic(f.getModifiers()) && Subroutines.Subroutine.class.isAssignableFrom(f.getType())) {
+                    try {
+                        subroutineNames.put(f.get(null), f.getName());
+                    } catch (IllegalAccessException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }
+        }
+        String name = subroutineNames.get(action);
+        return name != null ? name : action.getClass().getSimpleName();
+    }
+}
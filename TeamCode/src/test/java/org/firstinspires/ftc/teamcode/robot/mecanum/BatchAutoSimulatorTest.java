@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.BlindFourBlockBlue;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.SSAutoMovingFoundation;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.SSAutoMovingFoundationRed;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAutoSimulatorTest {
+
+    @Test
+    void testRunsAutosFasterThanRealTime() {
+        BatchAutoSimulator simulator = new BatchAutoSimulator();
+        simulator.timeLimitSecs = 60; // Let every run get to the end, even if it's slower than a match
+        List<BatchAutoSimulator.Run> runs = simulator.runAll(
+                SSAutoMovingFoundation.class, SSAutoMovingFoundationRed.class, BlindFourBlockBlue.class);
+
+        assertEquals(9, runs.size());
+        for (BatchAutoSimulator.Run run : runs) {
+            assertTrue(run.finished, run.toString());
+            assertTrue(run.finalPositionError < 1, run.toString());
+            assertTrue(run.wallNanos < run.completionSecs * 1e9, run.toString());
+            assertFalse(run.timeline.isEmpty());
+        }
+    }
+
+    @Test
+    void testTimeline() {
+        BatchAutoSimulator.Run run = new BatchAutoSimulator().run(SSAutoMovingFoundation.class, SkystoneState.MIDDLE);
+
+        double last = 0;
+        for (BatchAutoSimulator.Event e : run.timeline) {
+            assertTrue(e.secs >= last);
+            last = e.secs;
+        }
+        // Jolting for the first block is an arrival interrupt, so the path waits on it
+        BatchAutoSimulator.Event jolts = run.timeline.stream()
+                .filter(e -> "JoltsUntilBlockGrab".equals(e.subroutine)).findFirst().get();
+        assertTrue(jolts.doneSecs > jolts.secs, run.timelineString());
+    }
+}
@@ -0,0 +1,151 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.simulator.utils.AllocationCounter;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrent;
+import org.junit.jupiter.api.Test;
+import org.openftc.revextensions2.MockRevBulkData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderTest {
+
+    @Test
+    void testRoundTripThroughFile() throws IOException {
+        File file = File.createTempFile("flight", ".flight");
+        file.deleteOnExit();
+
+        FlightRecorder recorder = FlightRecorder.open(file, 4096);
+        MockRevBulkData data = new MockRevBulkData();
+        data.encoderVals = new int[] {123456, -98765, 0, Integer.MIN_VALUE};
+        data.analogInputs = new int[] {0, 150, 3300, 42};
+        data.digitalInputs[0] = true;
+        data.digitalInputs[7] = true;
+        recorder.recordLoop(1000, data, -1.5, new IntakeCurrent(2500, 3100), new Pose(12.5, -30, Math.PI));
+        recorder.recordPowers(2000, new MecanumPowers(0.5, -1, 0.25, -0.125));
+
+        FlightLog log = FlightLog.open(file);
+        assertTrue(log.next());
+        assertEquals(FlightLog.LOOP, log.type);
+        assertEquals(1000, log.nanos);
+        assertArrayEquals(data.encoderVals, log.encoders);
+        assertArrayEquals(data.analogInputs, log.analog);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(data.digitalInputs[i], log.digitalInputState(i));
+        }
+        assertEquals(-1.5, log.heading);
+        assertEquals(2500, log.intakeLeftMAmps);
+        assertEquals(3100, log.intakeRightMAmps);
+        assertEquals(12.5, log.poseX);
+        assertEquals(-30, log.poseY);
+        assertEquals(Math.PI, log.poseHeading);
+
+        assertTrue(log.next());
+        assertEquals(FlightLog.POWERS, log.type);
+        assertEquals(2000, log.nanos);
+        assertEquals(0.5, log.powers.frontLeft);
+        assertEquals(-1, log.powers.frontRight);
+        assertEquals(0.25, log.powers.backLeft);
+        assertEquals(-0.125, log.powers.backRight);
+
+        assertFalse(log.next());
+    }
+
+    @Test
+    void testCloseTrimsFile() throws IOException {
+        File file = File.createTempFile("flight", ".flight");
+        file.deleteOnExit();
+
+        FlightRecorder recorder = FlightRecorder.open(file, 1 << 20);
+        recorder.recordPowers(1, new MecanumPowers(0.5, 0.5, 0.5, 0.5));
+        recorder.close();
+        recorder.close();
+        assertEquals(FlightLog.HEADER_SIZE + FlightLog.POWERS_RECORD_SIZE, file.length());
+
+        // Nothing goes in after closing, and what was there still reads back
+        recorder.recordPowers(2, new MecanumPowers(0, 0, 0, 0));
+        assertEquals(1, recorder.dropped());
+        FlightLog log = FlightLog.open(file);
+        assertTrue(log.next());
+        assertEquals(1, log.nanos);
+        assertFalse(log.next());
+    }
+
+    @Test
+    void testPruneKeepsNewest() throws IOException {
+        File dir = Files.createTempDirectory("flightlogs").toFile();
+        String[] names = {"20191214-093000.flight", "20191214-101500.flight", "20200104-080000.flight",
+                "20200104-081200.flight"};
+        for (String name : names) {
+            assertTrue(new File(dir, name).createNewFile());
+        }
+        File other = new File(dir, "notes.txt");
+        assertTrue(other.createNewFile());
+
+        FlightRecorder.prune(dir, 2);
+        assertFalse(new File(dir, names[0]).exists());
+        assertFalse(new File(dir, names[1]).exists());
+        assertTrue(new File(dir, names[2]).exists());
+        assertTrue(new File(dir, names[3]).exists());
+        assertTrue(other.exists());
+
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    void testDropsRecordsOnceFull() {
+        int capacity = FlightLog.HEADER_SIZE + FlightLog.LOOP_RECORD_SIZE + FlightLog.POWERS_RECORD_SIZE + 1;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+        FlightRecorder recorder = new FlightRecorder(buffer);
+        MecanumPowers powers = new MecanumPowers(0, 0, 0, 0);
+        recorder.recordLoop(0, new MockRevBulkData(), 0, new IntakeCurrent(0, 0), new Pose(0, 0, 0));
+        recorder.recordPowers(1, powers);
+        recorder.recordPowers(2, powers);
+        assertEquals(1, recorder.dropped());
+        assertEquals(capacity - 1, recorder.bytesWritten());
+
+        buffer.flip();
+        buffer.limit(capacity);
+        FlightLog log = new FlightLog(buffer);
+        assertTrue(log.next());
+        assertTrue(log.next());
+        assertEquals(1, log.nanos);
+        assertFalse(log.next());
+    }
+
+    @Test
+    void testRecordingIsCheap() {
+        int loops = 100000;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(
+                FlightLog.HEADER_SIZE + 3 * loops * (FlightLog.LOOP_RECORD_SIZE + FlightLog.POWERS_RECORD_SIZE) + 1);
+        FlightRecorder recorder = new FlightRecorder(buffer);
+        MockRevBulkData data = new MockRevBulkData();
+        IntakeCurrent current = new IntakeCurrent(0, 0);
+        Pose pose = new Pose(0, 0, 0);
+        MecanumPowers powers = new MecanumPowers(0, 0, 0, 0);
+        Runnable loop = () -> {
+            data.encoderVals[0]++;
+            recorder.recordLoop(System.nanoTime(), data, 0, current, pose);
+            recorder.recordPowers(System.nanoTime(), powers);
+        };
+
+        assertEquals(0, AllocationCounter.bytesAllocated(loop, loops / 2, loops / 2));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            loop.run();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / loops;
+        // Most of the budget is slack for slow CI machines, this is well under a microsecond
+        assertTrue(micros < 20, micros + " us per loop");
+        assertEquals(0, recorder.dropped());
+    }
+}
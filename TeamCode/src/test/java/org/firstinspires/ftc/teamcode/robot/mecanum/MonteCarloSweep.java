@@ -0,0 +1,292 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.elements.SkystoneState;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs one autonomous thousands of times through BatchAutoSimulator, spread across every core with
+ * a fork join pool, to see how it copes with a robot that doesn't behave exactly like the model.
+ * Each run gets its own skystone position, motor noise, slip and start position error, all drawn
+ * from a seeded random, so a sweep comes out the same however the runs are split between threads.
+ *
+ * The result is how long the auto takes and, for every waypoint, how often it goes wrong there.
+ * A stop waypoint the path moves on from with the robot still outside its allowedPositionError
+ * (because the dead man switch or a subroutine gave up on it) counts as a failure, as does running
+ * out of time on the way to a waypoint. Stop waypoints with a high failure rate have tolerances
+ * the robot can't reliably meet.
+ */
+public class MonteCarloSweep {
+    public int runs = 1000;
+    public long seed = 8802;
+    public int parallelism = Runtime.getRuntime().availableProcessors();
+    public int runsPerTask = 8; // Tasks with more runs than this split in half
+
+    public double maxVoltageError = VirtualSkystoneHardware.MAX_VOLTAGE_ERROR;
+    public double minDecayFrac = 0.05; // VirtualSkystoneHardware.DECAY_FRAC is in the middle
+    public double maxDecayFrac = 0.15;
+    public double maxStartPositionError = 1; // Inches, in both x and y
+    public double maxStartHeadingError = Math.toRadians(2);
+
+    public BatchAutoSimulator simulator = new BatchAutoSimulator();
+
+    public static class WaypointStats {
+        public SkystoneState skystone;
+        public int index;
+        public Waypoint waypoint;
+
+        public int attempts; // Runs that set off for this waypoint
+        public int reached;
+        public int outsideTolerance; // Stop waypoints we moved on from without getting close enough
+        public int stuck; // Runs that ran out of time on the way here
+        public double maxPositionError; // When the path moved on
+
+        public double failureRate() {
+            return attempts == 0 ? 0 : (double) (outsideTolerance + stuck) / attempts;
+        }
+
+        void merge(WaypointStats other) {
+            attempts += other.attempts;
+            reached += other.reached;
+            outsideTolerance += other.outsideTolerance;
+            stuck += other.stuck;
+            maxPositionError = Math.max(maxPositionError, other.maxPositionError);
+        }
+
+        @Override
+        public String toString() {
+            String type = waypoint instanceof StopWaypoint ?
+                    String.format(Locale.US, "StopWaypoint %s within %.1f", waypoint,
+                            ((StopWaypoint) waypoint).allowedPositionError) :
+                    waypoint.getClass().getSimpleName() + " " + waypoint;
+            return String.format(Locale.US, "%-6s #%-3d %-40s %5.1f%% of %d (%d outside tolerance, %d stuck, worst %.2f in)",
+                    skystone, index, type, failureRate() * 100, attempts, outsideTolerance, stuck, maxPositionError);
+        }
+    }
+
+    public static class Result {
+        public Class opMode;
+        public int runs;
+        public int finished;
+        public double[] completionSecs = new double[0]; // Finished runs only, sorted
+        public Map<String, WaypointStats> waypoints = new TreeMap<>();
+
+        void add(BatchAutoSimulator.Run run) {
+            runs++;
+            if (run.finished) {
+                finished++;
+                completionSecs = Arrays.copyOf(completionSecs, completionSecs.length + 1);
+                completionSecs[completionSecs.length - 1] = run.completionSecs;
+            }
+
+            for (BatchAutoSimulator.Event e : run.timeline) {
+                WaypointStats stats = stats(run, e.waypoint);
+                stats.attempts++;
+                stats.reached++;
+                stats.maxPositionError = Math.max(stats.maxPositionError, e.positionError);
+                Waypoint w = run.waypoints.get(e.waypoint);
+                if (w instanceof StopWaypoint && e.positionError >= ((StopWaypoint) w).allowedPositionError
+                        && ((StopWaypoint) w).allowedPositionError > 0) {
+                    stats.outsideTolerance++;
+                }
+            }
+            if (!run.finished && run.lastWaypoint + 1 < run.waypoints.size()) {
+                WaypointStats stats = stats(run, run.lastWaypoint + 1);
+                stats.attempts++;
+                stats.stuck++;
+            }
+        }
+
+        void merge(Result other) {
+            runs += other.runs;
+            finished += other.finished;
+            double[] merged = Arrays.copyOf(completionSecs, completionSecs.length + other.completionSecs.length);
+            System.arraycopy(other.completionSecs, 0, merged, completionSecs.length, other.completionSecs.length);
+            completionSecs = merged;
+            for (Map.Entry<String, WaypointStats> entry : other.waypoints.entrySet()) {
+                WaypointStats stats = waypoints.get(entry.getKey());
+                if (stats == null) {
+                    waypoints.put(entry.getKey(), entry.getValue());
+                } else {
+                    stats.merge(entry.getValue());
+                }
+            }
+        }
+
+        private WaypointStats stats(BatchAutoSimulator.Run run, int index) {
+            // Sorts by skystone position and then along the path
+            String key = String.format(Locale.US, "%s %04d", run.skystone, index);
+            WaypointStats stats = waypoints.get(key);
+            if (stats == null) {
+                stats = new WaypointStats();
+                stats.skystone = run.skystone;
+                stats.index = index;
+                stats.waypoint = run.waypoints.get(index);
+                waypoints.put(key, stats);
+            }
+            return stats;
+        }
+
+        public double finishRate() {
+            return runs == 0 ? 0 : (double) finished / runs;
+        }
+
+        /**
+         * @param p between 0 and 1
+         * @return the completion time of that fraction of finished runs, or NaN if none finished
+         */
+        public double percentile(double p) {
+            if (completionSecs.length == 0) {
+                return Double.NaN;
+            }
+            int i = (int) Math.ceil(p * completionSecs.length) - 1;
+            return completionSecs[Math.max(0, Math.min(completionSecs.length - 1, i))];
+        }
+
+        public double mean() {
+            double sum = 0;
+            for (double secs : completionSecs) {
+                sum += secs;
+            }
+            return completionSecs.length == 0 ? Double.NaN : sum / completionSecs.length;
+        }
+
+        /**
+         * Finished runs bucketed by whole seconds, starting from the fastest one.
+         */
+        public int[] histogram() {
+            if (completionSecs.length == 0) {
+                return new int[0];
+            }
+            int first = (int) Math.floor(completionSecs[0]);
+            int[] buckets = new int[(int) Math.floor(completionSecs[completionSecs.length - 1]) - first + 1];
+            for (double secs : completionSecs) {
+                buckets[(int) Math.floor(secs) - first]++;
+            }
+            return buckets;
+        }
+
+        /**
+         * Waypoints that failed at least once, worst first.
+         */
+        public List<WaypointStats> failures() {
+            List<WaypointStats> failures = new ArrayList<>();
+            for (WaypointStats stats : waypoints.values()) {
+                if (stats.failureRate() > 0) {
+                    failures.add(stats);
+                }
+            }
+            failures.sort((a, b) -> Double.compare(b.failureRate(), a.failureRate()));
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            s.append(String.format(Locale.US, "%s: %d runs, %.1f%% finished\n",
+                    opMode.getSimpleName(), runs, finishRate() * 100));
+            s.append(String.format(Locale.US, "Completion: min %.2f p50 %.2f p90 %.2f p99 %.2f max %.2f mean %.2f s\n",
+                    percentile(0), percentile(0.5), percentile(0.9), percentile(0.99), percentile(1), mean()));
+
+            int[] histogram = histogram();
+            int most = 1;
+            for (int count : histogram) {
+                most = Math.max(most, count);
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                char[] bar = new char[histogram[i] * 50 / most];
+                Arrays.fill(bar, '#');
+                s.append(String.format(Locale.US, "%4d s %6d %s\n",
+                        (int) Math.floor(completionSecs[0]) + i, histogram[i], new String(bar)));
+            }
+
+            s.append("Failures by waypoint:\n");
+            for (WaypointStats stats : failures()) {
+                s.append(stats).append('\n');
+            }
+            return s.toString();
+        }
+    }
+
+    public Result sweep(Class opMode) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Result result = pool.invoke(new SweepTask(opMode, 0, runs));
+            Arrays.sort(result.completionSecs);
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private class SweepTask extends RecursiveTask<Result> {
+        private Class opMode;
+        private int from;
+        private int to;
+
+        SweepTask(Class opMode, int from, int to) {
+            this.opMode = opMode;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from > runsPerTask) {
+                int mid = (from + to) >>> 1;
+                SweepTask right = new SweepTask(opMode, mid, to);
+                right.fork();
+                Result result = new SweepTask(opMode, from, mid).compute();
+                result.merge(right.join());
+                return result;
+            }
+
+            Result result = new Result();
+            result.opMode = opMode;
+            for (int i = from; i < to; i++) {
+                result.add(run(opMode, i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Makes the i'th run of a sweep, which is the same every time for the same seed.
+     */
+    public BatchAutoSimulator.Run run(Class opMode, int i) {
+        Random random = new Random(seed + i);
+        SkystoneState skystone = SkystoneState.values()[random.nextInt(SkystoneState.values().length)];
+        double voltageError = random.nextDouble() * maxVoltageError;
+        double decayFrac = minDecayFrac + random.nextDouble() * (maxDecayFrac - minDecayFrac);
+        Pose startError = new Pose(
+                plusOrMinus(random, maxStartPositionError),
+                plusOrMinus(random, maxStartPositionError),
+                plusOrMinus(random, maxStartHeadingError));
+        long robotSeed = random.nextLong();
+
+        return simulator.run(opMode, skystone, start -> {
+            VirtualSkystoneHardware robot = new VirtualSkystoneHardware(start);
+            // The robot is placed a little off from where the op mode thinks it is
+            robot.position = start.add(startError);
+            robot.voltageError = voltageError;
+            robot.decayFrac = decayFrac;
+            robot.random = new Random(robotSeed);
+            return robot;
+        });
+    }
+
+    private static double plusOrMinus(Random random, double max) {
+        return (random.nextDouble() * 2 - 1) * max;
+    }
+}
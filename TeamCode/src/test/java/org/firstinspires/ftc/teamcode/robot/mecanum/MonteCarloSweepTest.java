@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.SSAutoMovingFoundation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSweepTest {
+
+    @Test
+    void testSweep() {
+        MonteCarloSweep sweep = new MonteCarloSweep();
+        sweep.runs = 64;
+        sweep.simulator.timeLimitSecs = 60; // Long enough to see the whole distribution
+        MonteCarloSweep.Result result = sweep.sweep(SSAutoMovingFoundation.class);
+
+        assertEquals(64, result.runs);
+        assertEquals(result.finished, result.completionSecs.length);
+        assertTrue(result.finished > 0, result.toString());
+        for (int i = 1; i < result.completionSecs.length; i++) {
+            assertTrue(result.completionSecs[i] >= result.completionSecs[i - 1]);
+        }
+        int histogramTotal = 0;
+        for (int count : result.histogram()) {
+            histogramTotal += count;
+        }
+        assertEquals(result.finished, histogramTotal);
+
+        for (MonteCarloSweep.WaypointStats stats : result.waypoints.values()) {
+            assertEquals(stats.attempts, stats.reached + stats.stuck);
+            assertTrue(stats.failureRate() >= 0 && stats.failureRate() <= 1);
+        }
+    }
+
+    @Test
+    void testSameResultOnAnyNumberOfThreads() {
+        MonteCarloSweep sweep = new MonteCarloSweep();
+        sweep.runs = 16;
+        sweep.parallelism = 1;
+        MonteCarloSweep.Result oneThread = sweep.sweep(SSAutoMovingFoundation.class);
+        sweep.parallelism = 4;
+        sweep.runsPerTask = 1;
+        MonteCarloSweep.Result fourThreads = sweep.sweep(SSAutoMovingFoundation.class);
+
+        assertArrayEquals(oneThread.completionSecs, fourThreads.completionSecs);
+        assertEquals(oneThread.waypoints.keySet(), fourThreads.waypoints.keySet());
+        for (String key : oneThread.waypoints.keySet()) {
+            assertEquals(oneThread.waypoints.get(key).toString(), fourThreads.waypoints.get(key).toString());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.CachedMotor;
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.MotorOutputCache;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MotorOutputCacheTest {
+
+    @Test
+    void testSkipsWritesThatChangeNothing() {
+        MotorOutputCache cache = new MotorOutputCache();
+        DcMotorEx motor = Mockito.mock(DcMotorEx.class);
+        CachedMotor output = cache.wrap(motor);
+
+        output.setPower(0.5);
+        output.setPower(0.5);
+        output.setPower(0.5 + MotorOutputCache.POWER_EPSILON / 2);
+        verify(motor, times(1)).setPower(anyDouble());
+        assertEquals(1, cache.writes);
+        assertEquals(2, cache.skipped);
+
+        output.setPower(0.6);
+        verify(motor).setPower(0.6);
+
+        // Stopping always goes out, however close we already are
+        output.setPower(MotorOutputCache.POWER_EPSILON / 2);
+        output.setPower(0);
+        verify(motor).setPower(0);
+        output.setPower(0);
+        assertEquals(4, cache.writes);
+    }
+
+    @Test
+    void testModeChangeResendsPower() {
+        MotorOutputCache cache = new MotorOutputCache();
+        DcMotorEx motor = Mockito.mock(DcMotorEx.class);
+        CachedMotor output = cache.wrap(motor);
+
+        output.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        output.setPower(1);
+        output.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        output.setPower(1);
+        verify(motor, times(1)).setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        verify(motor, times(1)).setPower(1);
+
+        output.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        output.setPower(1);
+        verify(motor, times(2)).setPower(1);
+
+        // After an invalidate everything goes out again
+        cache.invalidate();
+        output.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        output.setPower(1);
+        verify(motor, times(2)).setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        verify(motor, times(3)).setPower(1);
+    }
+
+    @Test
+    void testSavedPerSecond() {
+        MotorOutputCache cache = new MotorOutputCache();
+        CachedMotor output = cache.wrap(Mockito.mock(DcMotorEx.class));
+        cache.savedPerSecond(1000);
+        for (int i = 0; i < 101; i++) {
+            output.setPower(0.25);
+        }
+        assertEquals(200, cache.savedPerSecond(1500), 1e-9);
+        // Asking twice at the same time doesn't divide by zero
+        assertEquals(200, cache.savedPerSecond(1500), 1e-9);
+    }
+}
@@ -0,0 +1,171 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.simulator.SimulatedOpModeFactory;
+import org.firstinspires.ftc.teamcode.autonomous.odometry.TwoWheelTrackingLocalizer;
+import org.firstinspires.ftc.teamcode.common.math.MathUtil;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.common.math.TimePose;
+import org.openftc.revextensions2.MockRevBulkData;
+import org.openftc.revextensions2.RevBulkData;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A virtual robot that plays back a flight log instead of simulating physics. Each bulk read hands
+ * the next recorded loop to the localizer and everything after it, exactly as the real robot saw
+ * it, and every setPowers() call is compared against the powers the robot commanded on that loop.
+ * Replays run as fast as the code does, so a whole autonomous takes milliseconds.
+ *
+ * The robot's clock is set to each loop's recorded time, so timers (delayed subroutines and the
+ * stop waypoint dead man switch) go off on the same loop they did on the robot, however fast the
+ * replay runs.
+ */
+public class ReplaySkystoneHardware extends VirtualSkystoneHardware {
+    public static double POWER_TOLERANCE = 1e-9;
+
+    private FlightLog log;
+    private MockRevBulkData data;
+    private List<MecanumPowers> recordedPowers;
+    private int powersCompared;
+    private int lastDivergentLoop = -1;
+
+    /* Results */
+    public int loops;
+    public int divergentLoops;
+    public int firstDivergentLoop = -1;
+    public double maxPowerError;
+    public double maxPoseError; // Between our localizer and the recorded one
+    public Pose recordedPose;
+
+    public ReplaySkystoneHardware(ByteBuffer flightLog) {
+        super(new Pose(0, 0, 0));
+        this.log = new FlightLog(flightLog.duplicate());
+        this.data = new MockRevBulkData();
+        this.recordedPowers = new ArrayList<>();
+        this.lastChassisRead = data;
+
+        // Start from wherever the recorded localizer did
+        while (log.next() && log.type != FlightLog.START) {}
+        if (log.type != FlightLog.START) {
+            throw new IllegalArgumentException("Flight log has no start record");
+        }
+        Pose start = new Pose(log.poseX, log.poseY, log.poseHeading);
+        virtualClock.nanos = log.nanos;
+        this.localizer = new TwoWheelTrackingLocalizer(0, 1, new TimePose(start, clock.millis()), clock);
+        this.recordedPose = start;
+        this.position = start;
+
+        // Anything commanded before the first bulk read
+        readPowers();
+    }
+
+    /**
+     * Replays a whole op mode against a flight log, until the log runs out or the op mode stops.
+     */
+    public static ReplaySkystoneHardware replayOpMode(Class opMode, ByteBuffer flightLog) {
+        SimulatedOpModeFactory simOpMode = new SimulatedOpModeFactory(opMode,
+                start -> new ReplaySkystoneHardware(flightLog));
+        ReplaySkystoneHardware robot = (ReplaySkystoneHardware) simOpMode.robot;
+        simOpMode.opMode.start();
+        while (!robot.finished() && !simOpMode.stopRequested) {
+            simOpMode.opMode.loop();
+        }
+        return robot;
+    }
+
+    public boolean finished() {
+        return log.type != FlightLog.LOOP;
+    }
+
+    @Override
+    public RevBulkData performBulkRead() {
+        if (finished()) {
+            return lastChassisRead;
+        }
+        checkPowersUsed();
+
+        virtualClock.nanos = log.nanos;
+        for (int i = 0; i < 4; i++) {
+            data.encoderVals[i] = log.encoders[i];
+            data.analogInputs[i] = log.analog[i];
+        }
+        for (int i = 0; i < 8; i++) {
+            data.digitalInputs[i] = log.digitalInputState(i);
+        }
+        lastHeading = log.heading;
+        lastIntakeCurrent.leftMAmps = log.intakeLeftMAmps;
+        lastIntakeCurrent.rightMAmps = log.intakeRightMAmps;
+        recordedPose = new Pose(log.poseX, log.poseY, log.poseHeading);
+
+        readPowers();
+
+        localizer.update(data, lastHeading, clock.nanoTime());
+        position = localizer.pose();
+        maxPoseError = Math.max(maxPoseError, Math.max(
+                position.distance(recordedPose),
+                Math.abs(MathUtil.angleWrap(position.heading - recordedPose.heading))));
+
+        loops++;
+        updateFromBulkRead();
+        return lastChassisRead;
+    }
+
+    @Override
+    public void setPowers(MecanumPowers powers) {
+        super.setPowers(powers);
+        if (powersCompared < recordedPowers.size()) {
+            compare(powers, recordedPowers.get(powersCompared));
+        } else {
+            divergedNow(); // The robot didn't set powers this many times
+        }
+        powersCompared++;
+    }
+
+    // Reads ahead to the next loop, collecting whatever powers were commanded before it
+    private void readPowers() {
+        recordedPowers.clear();
+        powersCompared = 0;
+        while (log.next() && log.type == FlightLog.POWERS) {
+            MecanumPowers p = log.powers;
+            recordedPowers.add(new MecanumPowers(p.frontLeft, p.frontRight, p.backLeft, p.backRight));
+        }
+    }
+
+    // The robot set powers more times than we did last loop
+    private void checkPowersUsed() {
+        if (powersCompared < recordedPowers.size()) {
+            divergedNow();
+        }
+    }
+
+    private void compare(MecanumPowers ours, MecanumPowers recorded) {
+        double error = Math.max(
+                Math.max(Math.abs(ours.frontLeft - recorded.frontLeft), Math.abs(ours.frontRight - recorded.frontRight)),
+                Math.max(Math.abs(ours.backLeft - recorded.backLeft), Math.abs(ours.backRight - recorded.backRight)));
+        maxPowerError = Math.max(maxPowerError, error);
+        if (error > POWER_TOLERANCE) {
+            divergedNow();
+        }
+    }
+
+    private void divergedNow() {
+        if (lastDivergentLoop != loops) {
+            lastDivergentLoop = loops;
+            divergentLoops++;
+            if (firstDivergentLoop < 0) {
+                firstDivergentLoop = loops;
+            }
+        }
+    }
+
+    @Override
+    public Pose pose() {
+        return localizer.pose();
+    }
+
+    // Nothing to simulate, the log already says what happened
+    @Override
+    public void elapse(double secs) {}
+}
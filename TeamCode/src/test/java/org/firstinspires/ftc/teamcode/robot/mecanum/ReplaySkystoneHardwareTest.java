@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.simulator.utils.MockHardwareMap;
+import org.firstinspires.ftc.simulator.utils.MockTelemetry;
+import org.firstinspires.ftc.teamcode.autonomous.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.autonomous.controllers.MecanumPurePursuitController;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.StopWaypoint;
+import org.firstinspires.ftc.teamcode.autonomous.waypoints.Waypoint;
+import org.firstinspires.ftc.teamcode.common.math.Pose;
+import org.firstinspires.ftc.teamcode.robot.mecanum.auto.SSAutoMovingFoundation;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openftc.revextensions2.MockRevBulkData;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplaySkystoneHardwareTest {
+    private static final int LOOPS = 300;
+    private static final List<Waypoint> PATH = Arrays.asList(
+            new Waypoint(0, 0, 6),
+            new Waypoint(24, 0, 6),
+            new StopWaypoint(24, 24, 6, 0, 1)
+    );
+
+    @Test
+    void testReplayReproducesRecordedPowers() {
+        ReplaySkystoneHardware replay = replay(record());
+
+        assertEquals(LOOPS, replay.loops);
+        assertEquals(0, replay.divergentLoops);
+        assertEquals(0, replay.maxPowerError);
+        assertEquals(0, replay.maxPoseError);
+    }
+
+    @Test
+    void testReplayFlagsChangedController() {
+        ByteBuffer log = record();
+        Pose reduction = MecanumPurePursuitController.GUNNING_REDUCTION_DISTANCES;
+        MecanumPurePursuitController.GUNNING_REDUCTION_DISTANCES = new Pose(10, 10, Math.PI);
+        try {
+            ReplaySkystoneHardware replay = replay(log);
+            assertEquals(1, replay.firstDivergentLoop);
+            assertTrue(replay.maxPowerError > 0.01);
+            // Inputs are replayed as recorded, so only the outputs should move
+            assertEquals(0, replay.maxPoseError);
+        } finally {
+            MecanumPurePursuitController.GUNNING_REDUCTION_DISTANCES = reduction;
+        }
+    }
+
+    @Test
+    void testReplaysWholeOpMode() {
+        ReplaySkystoneHardware replay = ReplaySkystoneHardware.replayOpMode(SSAutoMovingFoundation.class, record());
+        assertTrue(replay.loops > 0);
+    }
+
+    private static ReplaySkystoneHardware replay(ByteBuffer log) {
+        ReplaySkystoneHardware robot = new ReplaySkystoneHardware(log);
+        robot.initBulkReadTelemetry();
+        PurePursuitPath path = new PurePursuitPath(robot, PATH);
+        while (!robot.finished()) {
+            robot.performBulkRead();
+            path.update();
+        }
+        return robot;
+    }
+
+    // Drives the real bulk read code on mocked hubs, with encoders that roughly follow the powers
+    private static ByteBuffer record() {
+        boolean asyncHeading = SkystoneHardware.ASYNC_HEADING;
+        SkystoneHardware.ASYNC_HEADING = false;
+        try {
+            RecordingSkystoneHardware robot = new RecordingSkystoneHardware();
+            robot.initBulkReadTelemetry();
+            MockRevBulkData data = new MockRevBulkData();
+            Mockito.doReturn(data).when(robot.chassisHub).getBulkInputData();
+            Orientation orientation = robot.imu.getAngularOrientation();
+
+            PurePursuitPath path = new PurePursuitPath(robot, PATH);
+            for (int i = 0; i < LOOPS; i++) {
+                robot.performBulkRead();
+                path.update();
+
+                double fl = robot.frontLeft.getPower();
+                double fr = robot.frontRight.getPower();
+                double bl = robot.backLeft.getPower();
+                double br = robot.backRight.getPower();
+                data.encoderVals[0] += (int) ((fl + fr + bl + br) / 4 * 600);
+                data.encoderVals[1] += (int) ((fr + bl - fl - br) / 4 * 500);
+                orientation.firstAngle += (float) ((fr + br - fl - bl) / 4 * 0.02);
+            }
+            return (ByteBuffer) robot.log.duplicate().clear();
+        } finally {
+            SkystoneHardware.ASYNC_HEADING = asyncHeading;
+        }
+    }
+
+    private static class RecordingSkystoneHardware extends SkystoneHardware {
+        ByteBuffer log;
+
+        RecordingSkystoneHardware() {
+            super(new MockHardwareMap(), new MockTelemetry(),
+                    Mockito.mock(FtcDashboard.class), new Pose(0, 0, 0));
+        }
+
+        @Override
+        protected FlightRecorder openFlightRecorder() {
+            log = ByteBuffer.allocateDirect(1 << 20);
+            return new FlightRecorder(log);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.SimpleLift;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openftc.revextensions2.MockRevBulkData;
+
+import static org.mockito.Mockito.*;
+
+class SimpleLiftTest {
+
+    @Test
+    void testUpdateReadsPositionFromBulkRead() {
+        DcMotorEx left = Mockito.mock(DcMotorEx.class);
+        DcMotorEx right = Mockito.mock(DcMotorEx.class);
+        when(left.getPortNumber()).thenReturn(2);
+        SimpleLift lift = new SimpleLift(left, right);
+        MockRevBulkData mechanicRead = new MockRevBulkData();
+
+        // Far below the target, so we drive at full power
+        lift.targetPosition = 500;
+        lift.update(mechanicRead);
+        verify(left).setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+
+        // Close enough for PID
+        mechanicRead.encoderVals[2] = 490;
+        lift.update(mechanicRead);
+        verify(left, times(2)).setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        verify(left, never()).getCurrentPosition();
+
+        // Without a bulk read we ask the motor, but only once
+        when(left.getCurrentPosition()).thenReturn(0);
+        lift.update();
+        verify(left, times(1)).getCurrentPosition();
+        verify(left, times(2)).setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+    }
+}
@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.simulator.utils.AllocationCounter;
+import org.junit.jupiter.api.Test;
+import org.openftc.revextensions2.MockRevBulkData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkystoneHardwareTest {
+
+    @Test
+    void testSteadyStateLoopDoesNotAllocate() {
+        // Dashboard packets are allowed to allocate when they go out, so keep them from going out
+        double dashboardInterval = SkystoneHardware.DASHBOARD_INTERVAL_MS;
+        SkystoneHardware.DASHBOARD_INTERVAL_MS = Double.MAX_VALUE;
+        try {
+            VirtualSkystoneHardware robot = new VirtualSkystoneHardware();
+            robot.initBulkReadTelemetry();
+            // Send driver station telemetry every loop so formatting is measured too
+            robot.telemetry.setMsTransmissionInterval(0);
+            MockRevBulkData data = new MockRevBulkData();
+            robot.lastChassisRead = data;
+
+            long bytes = AllocationCounter.bytesAllocated(() -> {
+                data.encoderVals[0] += 17;
+                data.analogInputs[1] = (data.analogInputs[1] + 1) % 3300;
+                data.digitalInputs[2] = !data.digitalInputs[2];
+                robot.lastIntakeCurrent.leftMAmps = data.encoderVals[0] % 4000;
+                robot.updateFromBulkRead();
+            }, 20000, 5000);
+
+            assertEquals(0, bytes);
+        } finally {
+            SkystoneHardware.DASHBOARD_INTERVAL_MS = dashboardInterval;
+        }
+    }
+
+    @Test
+    void testVirtualBulkReadDoesNotAllocate() {
+        VirtualSkystoneHardware robot = new VirtualSkystoneHardware();
+        robot.initBulkReadTelemetry();
+
+        long bytes = AllocationCounter.bytesAllocated(() -> {
+            robot.position.x += 0.01;
+            robot.position.heading += 0.001;
+            robot.virtualClock.advance(0.01);
+            robot.performBulkRead();
+        }, 20000, 5000);
+
+        assertEquals(0, bytes);
+    }
+
+    @Test
+    void testServoConfigChangesArePickedUp() {
+        double open = SkystoneHardware.BLOCK_GRABBER_OPEN;
+        double fangsRaised = SkystoneHardware.FANGS_RAISED;
+        try {
+            VirtualSkystoneHardware robot = new VirtualSkystoneHardware();
+            robot.initBulkReadTelemetry();
+            robot.lastChassisRead = new MockRevBulkData();
+            robot.updateFromBulkRead();
+            assertEquals(open, robot.blockGrabber.servo.getPosition());
+
+            // A retracted grabber moves as soon as its retracted position is tuned
+            SkystoneHardware.BLOCK_GRABBER_OPEN = open + 0.1;
+            robot.updateFromBulkRead();
+            assertEquals(open + 0.1, robot.blockGrabber.retractPosition);
+            assertEquals(open + 0.1, robot.blockGrabber.servo.getPosition());
+
+            // Once applied, the toggle is left alone, so positions set elsewhere stick
+            robot.blockGrabber.setPosition(SkystoneHardware.BLOCK_GRABBER_CAPSTONE);
+            robot.updateFromBulkRead();
+            assertEquals(SkystoneHardware.BLOCK_GRABBER_CAPSTONE, robot.blockGrabber.servo.getPosition());
+
+            // Tuning something else doesn't snap the grabber off the capstone
+            SkystoneHardware.FANGS_RAISED = fangsRaised + 0.05;
+            robot.updateFromBulkRead();
+            assertEquals(fangsRaised + 0.05 + SkystoneHardware.FANGS_LR_OFFSET, robot.leftFang.servo.getPosition(), 1e-12);
+            assertEquals(SkystoneHardware.BLOCK_GRABBER_CAPSTONE, robot.blockGrabber.servo.getPosition());
+
+            // Nor does tuning the grabber's own positions, since it isn't holding either of them
+            SkystoneHardware.BLOCK_GRABBER_OPEN = open + 0.2;
+            robot.updateFromBulkRead();
+            assertEquals(SkystoneHardware.BLOCK_GRABBER_CAPSTONE, robot.blockGrabber.servo.getPosition());
+            robot.blockGrabber.normalize();
+            assertEquals(open + 0.2, robot.blockGrabber.servo.getPosition());
+        } finally {
+            SkystoneHardware.BLOCK_GRABBER_OPEN = open;
+            SkystoneHardware.FANGS_RAISED = fangsRaised;
+        }
+    }
+}
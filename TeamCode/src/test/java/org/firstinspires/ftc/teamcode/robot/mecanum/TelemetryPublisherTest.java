@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.robot.mecanum;
+
+import org.firstinspires.ftc.simulator.utils.MockTelemetry;
+import org.junit.jupiter.api.Test;
+import org.openftc.revextensions2.MockRevBulkData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryPublisherTest {
+
+    @Test
+    void testOnlyFormatsWhenDue() {
+        MockTelemetry telemetry = new MockTelemetry();
+        telemetry.setMsTransmissionInterval(60000);
+        TelemetryPublisher publisher = new TelemetryPublisher(telemetry);
+
+        MockRevBulkData data = new MockRevBulkData();
+        data.encoderVals[2] = -42;
+        data.digitalInputs[1] = true;
+        publisher.x = 1.54;
+        publisher.heading = Math.PI;
+        publisher.powers = new MecanumPowers(0.5, -0.5, 1, -1);
+        publisher.chassisRead = data;
+        publisher.loopMillis = 4;
+
+        // Nothing is formatted or sent before the window comes around
+        assertFalse(publisher.publishIfDue());
+        assertEquals(0, telemetry.updates);
+        assertEquals("", telemetry.valueOf("X").toString());
+
+        telemetry.setMsTransmissionInterval(0);
+        assertTrue(publisher.publishIfDue());
+        assertEquals(1, telemetry.updates);
+        assertEquals("1.5", telemetry.valueOf("X").toString());
+        assertEquals("180.0", telemetry.valueOf("θ").toString());
+        assertEquals("-0.50", telemetry.valueOf("FR").toString());
+        assertEquals("-42", telemetry.valueOf("E2").toString());
+        assertEquals("0 1 0 0 0 0 0 0 ", telemetry.valueOf("DIGITALS").toString());
+        assertEquals("250.0", telemetry.valueOf("Hertz").toString());
+    }
+
+    @Test
+    void testRetriesWhenUpdateIsRefused() {
+        MockTelemetry telemetry = new MockTelemetry() {
+            @Override
+            public boolean update() {
+                updates++;
+                return updates > 1;
+            }
+        };
+        telemetry.setMsTransmissionInterval(0);
+        TelemetryPublisher publisher = new TelemetryPublisher(telemetry);
+
+        assertFalse(publisher.publishIfDue());
+        assertTrue(publisher.transmissionDue());
+        assertTrue(publisher.publishIfDue());
+    }
+}
@@ -1,34 +1,24 @@
 package org.firstinspires.ftc.teamcode.robot.mecanum;
 
 import com.acmerobotics.dashboard.FtcDashboard;
-import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
-import com.qualcomm.hardware.bosch.BNO055IMUImpl;
-import com.qualcomm.hardware.lynx.LynxModule;
-import com.qualcomm.hardware.lynx.LynxModuleIntf;
-import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataResponse;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
-import com.qualcomm.robotcore.hardware.HardwareDevice;
-import com.qualcomm.robotcore.hardware.HardwareMap;
-import com.qualcomm.robotcore.hardware.Servo;
-import com.qualcomm.robotcore.hardware.ServoImplEx;
 import com.qualcomm.robotcore.util.Range;
 
-import org.firstinspires.ftc.robotcore.external.Telemetry;
-import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
-import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.simulator.VirtualClock;
 import org.firstinspires.ftc.simulator.VirtualRobot;
-import org.firstinspires.ftc.simulator.utils.MockDcMotorEx;
+import org.firstinspires.ftc.simulator.utils.MockHardwareMap;
 import org.firstinspires.ftc.simulator.utils.MockRevBulkDataGenerator;
-import org.firstinspires.ftc.simulator.utils.MockServo;
+import org.firstinspires.ftc.simulator.utils.MockTelemetry;
 import org.firstinspires.ftc.teamcode.autonomous.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.common.LoopLogger;
 import org.firstinspires.ftc.teamcode.common.math.MathUtil;
 import org.firstinspires.ftc.teamcode.common.math.Pose;
 import org.firstinspires.ftc.teamcode.common.math.TimePose;
 import org.firstinspires.ftc.teamcode.robot.mecanum.mechanisms.IntakeCurrent;
 import org.mockito.Mockito;
-import org.mockito.stubbing.Answer;
 import org.openftc.revextensions2.RevBulkData;
 
+import java.util.Random;
+
 public class VirtualSkystoneHardware extends SkystoneHardware implements VirtualRobot {
     public static double TRACK_WIDTH = 17;
 
@@ -46,9 +36,15 @@ public class VirtualSkystoneHardware extends SkystoneHardware implements Virtual
     Pose velocity;
     MockRevBulkDataGenerator dataGen;
 
-    double time;
+    // Per robot rather than static, so robots on different threads can be given different physics
+    public double decayFrac = DECAY_FRAC;
+    public double voltageError = 0; // Fraction of full power, up to MAX_VOLTAGE_ERROR is realistic
+    public Random random = new Random();
+
+    VirtualClock virtualClock; // The same clock as SkystoneHardware.clock
     boolean slip;
     MecanumPowers wheelPowers;
+    private final TimePose stampedPosition = new TimePose(0, 0, 0, 0); // Reused so reads don't allocate
 
     public VirtualSkystoneHardware() {
         this(new Pose(0, 0, 0));
@@ -59,8 +55,13 @@ public class VirtualSkystoneHardware extends SkystoneHardware implements Virtual
     }
 
     public VirtualSkystoneHardware(Pose position, boolean slip) {
-        super(mockHardwareMap(), mockTelemetry(), Mockito.mock(FtcDashboard.class), position);
+        this(position, slip, new VirtualClock());
+    }
 
+    private VirtualSkystoneHardware(Pose position, boolean slip, VirtualClock clock) {
+        super(new MockHardwareMap(), new MockTelemetry(), Mockito.mock(FtcDashboard.class), position, clock);
+
+        this.virtualClock = clock;
         this.slip = slip;
         this.position = position;
         this.velocity = new Pose(0, 0, 0);
@@ -68,53 +69,13 @@ public class VirtualSkystoneHardware extends SkystoneHardware implements Virtual
         this.lastChassisRead = dataGen.mock();
     }
 
-    private static HardwareMap mockHardwareMap() {
-        HardwareMap mockHardwareMap = Mockito.mock(HardwareMap.class);
-        Mockito.doAnswer((Answer<HardwareDevice>) invocation -> {
-            Object[] args = invocation.getArguments();
-            Class<HardwareDevice> deviceClass = (Class<HardwareDevice>) args[0];
-            String deviceTag = (String) args[1];
-
-            if (deviceClass.equals(DcMotorEx.class)) {
-                return new MockDcMotorEx(deviceTag);
-            } else if (deviceClass.equals(Servo.class)) {
-                return new MockServo(deviceTag);
-            } else {
-                // Other devices don't have custom classes
-                HardwareDevice device = Mockito.mock(deviceClass);
-                Mockito.doReturn(args[1]).when(device).getDeviceName();
-
-                // But occasionally we just build our custom class features into the mocks
-                if (device instanceof BNO055IMUImpl) {
-                    Orientation imuOrientation = new Orientation();
-                    imuOrientation.firstAngle = 0;
-                    imuOrientation.secondAngle = 0;
-                    imuOrientation.thirdAngle = 0;
-                    Mockito.doReturn(imuOrientation).when((BNO055IMUImpl) device).getAngularOrientation();
-                }
-                return device;
-            }
-
-        }).when(mockHardwareMap).get(Mockito.any(), Mockito.anyString());
-        return mockHardwareMap;
-    }
-
-    private static Telemetry mockTelemetry() {
-        Telemetry mockTelemetry = Mockito.mock(Telemetry.class);
-        Mockito.doReturn(Mockito.mock(Telemetry.Log.class)).when(mockTelemetry).log();
-
-        Telemetry.Line mockLine = Mockito.mock(Telemetry.Line.class);
-        Mockito.doReturn(Mockito.mock(Telemetry.Item.class)).when(mockLine).addData(Mockito.any(), Mockito.any());
-        Mockito.doReturn(mockLine).when(mockTelemetry).addLine();
-        Mockito.doReturn(mockLine).when(mockTelemetry).addLine(Mockito.any());
-
-        return mockTelemetry;
-    }
-
     @Override
     public RevBulkData performBulkRead() {
-        this.localizer.virtualUpdate(new TimePose(this.position, (long) time * 1000));
-        this.packet = new TelemetryPacket();
+        // Packets are never sent here, and nothing but same-keyed values goes into them, so one will do
+        stampedPosition.set(this.position);
+        stampedPosition.time = clock.millis();
+        this.localizer.virtualUpdate(stampedPosition);
+        runActionCache();
         return lastChassisRead;
     }
 
@@ -125,6 +86,12 @@ public class VirtualSkystoneHardware extends SkystoneHardware implements Virtual
 
     // Just throw away calls to these functions
     @Override
+    protected FlightRecorder openFlightRecorder() {
+        return null;
+    }
+    @Override
+    protected void remapIMUAxes() {}
+    @Override
     public void drawDashboardPath(PurePursuitPath path) {}
     @Override
     public void sendDashboardTelemetryPacket() {}
@@ -132,16 +99,30 @@ public class VirtualSkystoneHardware extends SkystoneHardware implements Virtual
     // Some method calls we just throw away
     @Override
     public void setIntakePower(double power) {
-        System.out.println(String.format("Intake power %.1f", power));
+        if (LoopLogger.enabled(LoopLogger.Level.DEBUG)) {
+            LoopLogger.debug("Virtual", "Intake power %.1f", power);
+        }
     }
 
     public Pose pose() {
         return position;
     }
 
+    @Override
+    public Pose pose(Pose out) {
+        return out.set(position);
+    }
+
+    // Simulated seconds since the robot was built
+    public double time() {
+        return virtualClock.seconds();
+    }
+
     @Override
     public void elapse(double secs) {
-        System.out.println(wheelPowers);
+        if (LoopLogger.enabled(LoopLogger.Level.DEBUG)) {
+            LoopLogger.debug("Virtual", "Wheel powers %s", wheelPowers);
+        }
         if (
                 Math.abs(wheelPowers.frontLeft) > 1 ||
                         Math.abs(wheelPowers.frontRight) > 1 ||
@@ -178,19 +159,19 @@ public class VirtualSkystoneHardware extends SkystoneHardware implements Virtual
         ).multiply(MAX_ACCERATIONS);
 
         if (slip) {
-            velocity = velocity.scale(1 - DECAY_FRAC).add(acceleration.scale(DECAY_FRAC));
+            velocity = velocity.scale(1 - decayFrac).add(acceleration.scale(decayFrac));
             position = MathUtil.relativeOdometryUpdate(position, velocity.scale(secs));
         } else {
             position = MathUtil.relativeOdometryUpdate(position, acceleration.scale(secs));
         }
 
-        this.intakeCurrentQueue.add(new IntakeCurrent(0, 0));
+        this.intakeCurrentQueue.add(new IntakeCurrent(0, 0), clock.millis());
 
-        time += secs;
+        virtualClock.advance(secs);
     }
 
-    public static double addVoltageError(double d) {
-        double randomFrac = 0;//(Math.random() * 2) - 1; // Between -1 and 1
+    public double addVoltageError(double d) {
+        double randomFrac = voltageError == 0 ? 0 : (random.nextDouble() * 2 - 1) * voltageError;
         double nonlinear = Math.copySign(Math.pow(Math.abs(d), POWER_NONLINEARITY), d);
         return Range.clip(nonlinear + randomFrac, -1, 1);
     }
@@ -0,0 +1,39 @@
+package org.openftc.revextensions2;
+
+/**
+ * Bulk data backed by plain arrays. RevBulkData's constructor is package private, which is why this
+ * lives in the library's package rather than next to the other simulator mocks.
+ */
+public class MockRevBulkData extends RevBulkData {
+    public int[] encoderVals;
+    public int[] analogInputs;
+    public boolean[] digitalInputs;
+
+    public MockRevBulkData() {
+        this(new int[] {0, 0, 0, 0}, new int[] {0, 0, 0, 0},
+                new boolean[] {false, false, false, false, false, false, false, false});
+    }
+
+    // Reads straight out of the given arrays, so changes to them show up in the data
+    public MockRevBulkData(int[] encoderVals, int[] analogInputs, boolean[] digitalInputs) {
+        super(null, null);
+        this.encoderVals = encoderVals;
+        this.analogInputs = analogInputs;
+        this.digitalInputs = digitalInputs;
+    }
+
+    @Override
+    public int getMotorCurrentPosition(int motorNum) {
+        return encoderVals[motorNum];
+    }
+
+    @Override
+    public int getAnalogInputValue(int inputNum) {
+        return analogInputs[inputNum];
+    }
+
+    @Override
+    public boolean getDigitalInputState(int digitalInputNum) {
+        return digitalInputs[digitalInputNum];
+    }
+}